@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.function.Predicate;
+
+/**
+ * Caches the results of a stable predicate, so it is evaluated only once per input.
+ * <p>Depending on the {@link StaticFactoryMethod.Stability} of the predicate, results are cached by the class of the input, by the input itself or by the identity of the input. All caches are
+ * bounded and evict the least recently used results once they are full. Lookups do not lock, see {@link LruCache}.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class CachedPredicate implements Predicate<Object> {
+
+  private final Predicate<Object> predicate;
+
+  /**
+   * The results by input or input class. {@code null} for identity stable predicates.
+   */
+  private final LruCache<Object, Boolean> byEquality;
+
+  /**
+   * The results by the identity of the input. {@code null} for type or value stable predicates.
+   */
+  private final WeakIdentityCache<Boolean> byIdentity;
+
+  private final boolean byType;
+
+  private CachedPredicate(final Predicate<Object> predicate, final LruCache<Object, Boolean> byEquality, final WeakIdentityCache<Boolean> byIdentity, final boolean byType) {
+    this.predicate = predicate;
+    this.byEquality = byEquality;
+    this.byIdentity = byIdentity;
+    this.byType = byType;
+  }
+
+  /**
+   * Wraps the given predicate to cache its results, if its stability allows to.
+   *
+   * @param predicate the predicate to wrap. Might be {@code null}.
+   * @param stability the stability of the predicate
+   * @return the caching predicate, or the given one if its results cannot be cached or caching is disabled
+   */
+  static Predicate<Object> of(final Predicate<Object> predicate, final StaticFactoryMethod.Stability stability) {
+    final int size = Integer.getInteger(StaticFactoryUtil.PREDICATE_CACHE_SIZE_PROPERTY, StaticFactoryUtil.DEFAULT_PREDICATE_CACHE_SIZE);
+    if (predicate == null || size <= 0) {
+      return predicate;
+    }
+    switch (stability) {
+      case IDENTITY:
+        return new CachedPredicate(predicate, null, new WeakIdentityCache<>(size), false);
+      case VALUE:
+        return new CachedPredicate(predicate, new LruCache<>(size), null, false);
+      case TYPE:
+        return new CachedPredicate(predicate, new LruCache<>(size), null, true);
+      default:
+        return predicate;
+    }
+  }
+
+  @Override
+  public boolean test(final Object input) {
+    if (input == null) {
+      // neither a class nor an identity to cache by
+      return predicate.test(null);
+    }
+    if (byIdentity != null) {
+      Boolean ret = byIdentity.get(input);
+      if (ret == null) {
+        ret = predicate.test(input);
+        byIdentity.put(input, ret);
+      }
+      return ret;
+    }
+
+    final Object key = byType ? input.getClass() : input;
+    Boolean ret = byEquality.get(key);
+    if (ret == null) {
+      ret = predicate.test(input);
+      byEquality.put(key, ret);
+    }
+    return ret;
+  }
+}
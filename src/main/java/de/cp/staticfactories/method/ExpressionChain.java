@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable decision chain of the {@link StaticFactoryMethod#expression() expressions} of all methods of a group.
+ * <p>
+ * The compiled expressions are nested into one tree of {@link MethodHandles#guardWithTest(MethodHandle, MethodHandle, MethodHandle) guards}, which returns the position of the first method whose
+ * expression accepts the input, or {@code -1} if there is none. To find all methods accepting an input, the chain is entered again after the last method found, so there is one handle per entry
+ * point:
+ * </p>
+ * <pre>
+ * chains[n] = (Object input) -&gt; -1
+ * chains[i] = (Object input) -&gt; expression[i](input) ? i : chains[i + 1](input)
+ * </pre>
+ * <p>The handles are held by the instance, so they are no constants to the JIT and a chain is not inlined into its caller. Invoking one is still a single call, which neither boxes the input
+ * nor allocates.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class ExpressionChain {
+
+  private static final MethodHandle NOT_FOUND = MethodHandles.dropArguments(MethodHandles.constant(int.class, -1), 0, Object.class);
+
+  /**
+   * The methods declaring an expression, by their position in the chain.
+   */
+  private final Map<MethodMetaData, Integer> positions = new IdentityHashMap<>();
+
+  /**
+   * The entry points of the chain, by the position of the first method they test.
+   */
+  private final MethodHandle[] chains;
+
+  ExpressionChain(final MethodMetaData[] methods) {
+    final List<MethodHandle> expressions = new ArrayList<>();
+    for (final MethodMetaData method : methods) {
+      if (method.expression != null) {
+        positions.put(method, expressions.size());
+        expressions.add(method.expression);
+      }
+    }
+    this.chains = new MethodHandle[expressions.size() + 1];
+    chains[expressions.size()] = NOT_FOUND;
+    for (int i = expressions.size() - 1; i >= 0; i--) {
+      final MethodHandle found = MethodHandles.dropArguments(MethodHandles.constant(int.class, i), 0, Object.class);
+      chains[i] = MethodHandles.guardWithTest(expressions.get(i), found, chains[i + 1]);
+    }
+  }
+
+  /**
+   * Checks whether any method of the chain declares an expression.
+   *
+   * @return {@code true} if the chain is empty
+   */
+  boolean isEmpty() {
+    return positions.isEmpty();
+  }
+
+  /**
+   * Removes the methods whose expression does not accept the given input from the given candidates.
+   * <p>The candidates are in the order of the group, so their positions in the chain ascend. The chain is entered at the next candidate not decided yet, which skips the expressions of methods
+   * that are no candidates. Nothing is allocated unless a candidate is removed.</p>
+   *
+   * @param candidates the candidates to filter
+   * @param input the predicate input
+   * @return the candidates accepting the input in their order. The given array if all candidates accept the input.
+   */
+  MethodMetaData[] filter(final MethodMetaData[] candidates, final Object input) {
+    MethodMetaData[] ret = null;
+    int size = 0;
+    // the position of the next method accepting the input, MAX_VALUE if there is none
+    int found = -1;
+    for (int i = 0; i < candidates.length; i++) {
+      final Integer position = positions.get(candidates[i]);
+      if (position != null && found < position) {
+        found = next(position, input);
+        if (found < 0) {
+          found = Integer.MAX_VALUE;
+        }
+      }
+      if (position == null || found == position) {
+        if (ret != null) {
+          ret[size++] = candidates[i];
+        }
+      } else if (ret == null) {
+        // the first candidate removed - copy the ones accepted before
+        ret = Arrays.copyOf(candidates, candidates.length - 1);
+        size = i;
+      }
+    }
+    return ret == null ? candidates : Arrays.copyOf(ret, size);
+  }
+
+  private int next(final int start, final Object input) {
+    try {
+      return (int) chains[start].invokeExact(input);
+    } catch (final RuntimeException | Error ex) {
+      throw ex;
+    } catch (final Throwable ex) {
+      // the compiled expressions do not throw checked exceptions
+      throw new IllegalStateException(ex);
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * Unboxes arguments for primitive parameters of factory methods, applying the same widening conversions as {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+ * <p>This class is public only to be reachable by the invokers generated by the {@link StaticFactoryProcessor}. It is not meant to be used by clients.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public final class FactoryArguments {
+
+  private FactoryArguments() {
+  }
+
+  /**
+   * Unboxes the given argument to a {@code boolean}.
+   *
+   * @param argument the argument to unbox
+   * @return the unboxed value
+   * @throws IllegalArgumentException in case the argument cannot be converted
+   */
+  public static boolean toBoolean(final Object argument) {
+    if (argument instanceof Boolean) {
+      return (Boolean) argument;
+    }
+    throw mismatch(argument, boolean.class);
+  }
+
+  /**
+   * Unboxes the given argument to a {@code char}.
+   *
+   * @param argument the argument to unbox
+   * @return the unboxed value
+   * @throws IllegalArgumentException in case the argument cannot be converted
+   */
+  public static char toChar(final Object argument) {
+    if (argument instanceof Character) {
+      return (Character) argument;
+    }
+    throw mismatch(argument, char.class);
+  }
+
+  /**
+   * Unboxes the given argument to a {@code byte}.
+   *
+   * @param argument the argument to unbox
+   * @return the unboxed value
+   * @throws IllegalArgumentException in case the argument cannot be converted
+   */
+  public static byte toByte(final Object argument) {
+    if (argument instanceof Byte) {
+      return (Byte) argument;
+    }
+    throw mismatch(argument, byte.class);
+  }
+
+  /**
+   * Unboxes the given argument to a {@code short}, widening a {@code byte} if required.
+   *
+   * @param argument the argument to unbox
+   * @return the unboxed value
+   * @throws IllegalArgumentException in case the argument cannot be converted
+   */
+  public static short toShort(final Object argument) {
+    if (argument instanceof Short) {
+      return (Short) argument;
+    }
+    if (argument instanceof Byte) {
+      return (Byte) argument;
+    }
+    throw mismatch(argument, short.class);
+  }
+
+  /**
+   * Unboxes the given argument to an {@code int}, widening a {@code char}, {@code short} or {@code byte} if required.
+   *
+   * @param argument the argument to unbox
+   * @return the unboxed value
+   * @throws IllegalArgumentException in case the argument cannot be converted
+   */
+  public static int toInt(final Object argument) {
+    if (argument instanceof Integer) {
+      return (Integer) argument;
+    }
+    if (argument instanceof Character) {
+      return (Character) argument;
+    }
+    if (argument instanceof Short || argument instanceof Byte) {
+      return toShort(argument);
+    }
+    throw mismatch(argument, int.class);
+  }
+
+  /**
+   * Unboxes the given argument to a {@code long}, widening any integral type if required.
+   *
+   * @param argument the argument to unbox
+   * @return the unboxed value
+   * @throws IllegalArgumentException in case the argument cannot be converted
+   */
+  public static long toLong(final Object argument) {
+    if (argument instanceof Long) {
+      return (Long) argument;
+    }
+    if (isWidenableToInt(argument)) {
+      return toInt(argument);
+    }
+    throw mismatch(argument, long.class);
+  }
+
+  /**
+   * Unboxes the given argument to a {@code float}, widening any integral type if required.
+   *
+   * @param argument the argument to unbox
+   * @return the unboxed value
+   * @throws IllegalArgumentException in case the argument cannot be converted
+   */
+  public static float toFloat(final Object argument) {
+    if (argument instanceof Float) {
+      return (Float) argument;
+    }
+    if (argument instanceof Long || isWidenableToInt(argument)) {
+      return toLong(argument);
+    }
+    throw mismatch(argument, float.class);
+  }
+
+  /**
+   * Unboxes the given argument to a {@code double}, widening any integral type or a {@code float} if required.
+   *
+   * @param argument the argument to unbox
+   * @return the unboxed value
+   * @throws IllegalArgumentException in case the argument cannot be converted
+   */
+  public static double toDouble(final Object argument) {
+    if (argument instanceof Double) {
+      return (Double) argument;
+    }
+    if (argument instanceof Float) {
+      return (Float) argument;
+    }
+    if (argument instanceof Long || isWidenableToInt(argument)) {
+      // not by the float, which would lose precision
+      return toLong(argument);
+    }
+    throw mismatch(argument, double.class);
+  }
+
+  /**
+   * Checks whether the given argument can be passed to a parameter of the given type, without invoking anything. Follows the same rules as the {@code to...} methods for primitive parameters.
+   *
+   * @param parameterType the type of the parameter, as given by {@link java.lang.reflect.Method#getParameterTypes()}
+   * @param argument the argument to check
+   * @return {@code true} if the argument fits the parameter
+   */
+  static boolean isAssignable(final Class<?> parameterType, final Object argument) {
+    if (!parameterType.isPrimitive()) {
+      return argument == null || parameterType.isInstance(argument);
+    }
+    if (parameterType == int.class) {
+      return isWidenableToInt(argument);
+    }
+    if (parameterType == long.class) {
+      return argument instanceof Long || isWidenableToInt(argument);
+    }
+    if (parameterType == double.class) {
+      return argument instanceof Double || argument instanceof Float || argument instanceof Long || isWidenableToInt(argument);
+    }
+    if (parameterType == float.class) {
+      return argument instanceof Float || argument instanceof Long || isWidenableToInt(argument);
+    }
+    if (parameterType == boolean.class) {
+      return argument instanceof Boolean;
+    }
+    if (parameterType == short.class) {
+      return argument instanceof Short || argument instanceof Byte;
+    }
+    if (parameterType == char.class) {
+      return argument instanceof Character;
+    }
+    return argument instanceof Byte;
+  }
+
+  private static boolean isWidenableToInt(final Object argument) {
+    return argument instanceof Integer || argument instanceof Character || argument instanceof Short || argument instanceof Byte;
+  }
+
+  private static IllegalArgumentException mismatch(final Object argument, final Class<?> parameterType) {
+    return new IllegalArgumentException(String.format("Argument %s cannot be passed as %s.", argument, parameterType));
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * Snapshot of the counters of the cache of factory results, see {@link StaticFactoryUtil#getResultCacheStatistics()}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public final class FactoryCacheStatistics {
+
+  private final long hits;
+  private final long misses;
+  private final int size;
+
+  FactoryCacheStatistics(final long hits, final long misses, final int size) {
+    this.hits = hits;
+    this.misses = misses;
+    this.size = size;
+  }
+
+  /**
+   * Gets the number of requests answered by a cached result.
+   *
+   * @return the hit count
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of requests for cacheable methods that found no cached result.
+   *
+   * @return the miss count
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Gets the number of currently cached results.
+   *
+   * @return the size of the cache
+   */
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "FactoryCacheStatistics[hits=" + hits + ", misses=" + misses + ", size=" + size + "]";
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * Creates objects by the static factory methods returning a certain class and accepting a certain predicate input, resolved once by {@link StaticFactoryUtil#handle(Class, Class)}.
+ * <p>
+ * The handle keeps the candidate methods and their invokers, so each call of {@link #create(Object, Object...)} only evaluates the predicates and invokes the first accepted method. It is meant to
+ * be obtained once and used in loops creating many objects of the same kind.<br>
+ * A handle is bound to the factory methods known at the time it was obtained. It is not updated by {@link StaticFactoryUtil#reload()}; obtain a new one instead.
+ * </p>
+ * <p>Instances are immutable and can be shared between threads.</p>
+ *
+ * @param <T> the type of the objects created
+ * @param <I> the type of the predicate input
+ * @author cperv
+ * @version 0.2
+ */
+public final class FactoryHandle<T, I> {
+
+  private final Class<T> requestedClass;
+  private final Class<I> inputType;
+  private final MethodGroup group;
+
+  /**
+   * The methods accepting exactly the input type, which is the common case.
+   */
+  private final MethodGroup.Candidates candidates;
+
+  FactoryHandle(final Class<T> requestedClass, final Class<I> inputType, final MethodGroup group) {
+    this.requestedClass = requestedClass;
+    this.inputType = inputType;
+    this.group = group;
+    this.candidates = group.getCandidates(inputType);
+  }
+
+  /**
+   * Invokes the first factory method whose predicate accepts the given input and returns the object created by it. Methods are taken in the same order as by
+   * {@link StaticFactoryUtil#getObject(Class, Object, Object...)}.
+   *
+   * @param predicateInput the input for the predicates. Subclasses of the handle's input type are accepted; then the methods having a predicate for the subclass are taken into account as well. {@code null} is only offered to methods accepting any object.
+   * @param factoryInput the input to give to the found factory method. A {@code null} array is taken as a single {@code null} argument
+   * @return the object created, or {@code null} if no factory was found or the factory returned null by itself
+   */
+  public T create(final I predicateInput, final Object... factoryInput) {
+    if (factoryInput == null) {
+      // a single null argument, not an empty argument list
+      return create(predicateInput, 1, null, null, null, null, null);
+    }
+    return create(predicateInput, factoryInput.length, null, null, null, null, factoryInput);
+  }
+
+  /**
+   * Same as {@link #create(Object, Object...)} for factory methods taking no arguments, without allocating an argument array.
+   *
+   * @param predicateInput the input for the predicates
+   * @return the object created, or {@code null} if no factory was found or the factory returned null by itself
+   */
+  public T create(final I predicateInput) {
+    return create(predicateInput, 0, null, null, null, null, null);
+  }
+
+  /**
+   * Same as {@link #create(Object, Object...)} for factory methods taking a single argument, without allocating an argument array. An array of objects is taken as the complete factory input.
+   *
+   * @param predicateInput the input for the predicates
+   * @param argument0 the argument to give to the found factory method
+   * @return the object created, or {@code null} if no factory was found or the factory returned null by itself
+   */
+  public T create(final I predicateInput, final Object argument0) {
+    if (argument0 instanceof Object[]) {
+      return create(predicateInput, (Object[]) argument0);
+    }
+    return create(predicateInput, 1, argument0, null, null, null, null);
+  }
+
+  /**
+   * Same as {@link #create(Object, Object...)} for factory methods taking two arguments, without allocating an argument array.
+   *
+   * @param predicateInput the input for the predicates
+   * @param argument0 the first argument to give to the found factory method
+   * @param argument1 the second argument to give to the found factory method
+   * @return the object created, or {@code null} if no factory was found or the factory returned null by itself
+   */
+  public T create(final I predicateInput, final Object argument0, final Object argument1) {
+    return create(predicateInput, 2, argument0, argument1, null, null, null);
+  }
+
+  /**
+   * Same as {@link #create(Object, Object...)} for factory methods taking three arguments, without allocating an argument array.
+   *
+   * @param predicateInput the input for the predicates
+   * @param argument0 the first argument to give to the found factory method
+   * @param argument1 the second argument to give to the found factory method
+   * @param argument2 the third argument to give to the found factory method
+   * @return the object created, or {@code null} if no factory was found or the factory returned null by itself
+   */
+  public T create(final I predicateInput, final Object argument0, final Object argument1, final Object argument2) {
+    return create(predicateInput, 3, argument0, argument1, argument2, null, null);
+  }
+
+  /**
+   * Same as {@link #create(Object, Object...)} for factory methods taking four arguments, without allocating an argument array.
+   *
+   * @param predicateInput the input for the predicates
+   * @param argument0 the first argument to give to the found factory method
+   * @param argument1 the second argument to give to the found factory method
+   * @param argument2 the third argument to give to the found factory method
+   * @param argument3 the fourth argument to give to the found factory method
+   * @return the object created, or {@code null} if no factory was found or the factory returned null by itself
+   */
+  public T create(final I predicateInput, final Object argument0, final Object argument1, final Object argument2, final Object argument3) {
+    return create(predicateInput, 4, argument0, argument1, argument2, argument3, null);
+  }
+
+  private T create(final I predicateInput, final int count, final Object argument0, final Object argument1, final Object argument2, final Object argument3,
+      final Object[] arguments) {
+    final Class<?> type = StaticFactoryUtil.getInputType(predicateInput);
+    final MethodMetaData[] methods = (type == inputType ? candidates : group.getCandidates(type)).get(predicateInput);
+
+    T ret = null;
+    for (int i = 0; i < methods.length && ret == null; i++) {
+      if (methods[i].checkPredicate.test(predicateInput)) {
+        ret = StaticFactoryUtil.createObject(methods[i], count, argument0, argument1, argument2, argument3, arguments);
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Gets the class of the objects created by this handle.
+   *
+   * @return the requested class, or {@code null} if any class was requested
+   */
+  public Class<T> getRequestedClass() {
+    return requestedClass;
+  }
+
+  /**
+   * Gets the type of the predicate input this handle was resolved for.
+   *
+   * @return the input type
+   */
+  public Class<I> getInputType() {
+    return inputType;
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Format of the index file written by the {@link StaticFactoryProcessor} and read by the {@link FactoryRegistryLoader}.
+ * <p>
+ * The index holds one entry per {@link StaticFactoryMethod} annotation. Each entry is stored as a set of properties, prefixed with the entry's number, e.g. {@code 0.class}, {@code 0.method}, etc.<br>
+ * All types are stored as JVM field descriptors (e.g. {@code Ljava/lang/String;} or {@code I}), methods by their name and JVM method descriptor. This allows the runtime to find the factory method
+ * without scanning the declared methods of its class.
+ * </p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class FactoryIndex {
+
+  /**
+   * Key of the binary name of the class declaring the factory method.
+   */
+  static final String CLASS = "class";
+
+  /**
+   * Key of the name of the factory method.
+   */
+  static final String METHOD = "method";
+
+  /**
+   * Key of the JVM method descriptor of the factory method. The method's declared return type is part of it.
+   */
+  static final String DESCRIPTOR = "descriptor";
+
+  /**
+   * Key of the descriptor of the return type given in the annotation.
+   */
+  static final String RETURNS = "returns";
+
+  /**
+   * Key of the descriptor of the predicate class given in the annotation. Missing if the annotation has no predicate.
+   */
+  static final String PREDICATE = "predicate";
+
+  /**
+   * Key of the descriptor of the type the predicate accepts as input, that is the resolved type argument of {@link java.util.function.Predicate}.
+   */
+  static final String PREDICATE_INPUT = "predicateInput";
+
+  /**
+   * Key of the binary name of the generated {@link FactoryInvoker} of the factory method. Missing if no invoker could be generated.
+   */
+  static final String INVOKER = "invoker";
+
+  /**
+   * Key of the name of the predicate's {@link StaticFactoryMethod.Stability}. Missing for the default.
+   */
+  static final String STABILITY = "stability";
+
+  /**
+   * Key of the flag whether the method's results can be cached. Missing for the default.
+   */
+  static final String CACHEABLE = "cacheable";
+
+  /**
+   * Key of the milliseconds a cached result of the method stays cached. Missing for the default.
+   */
+  static final String CACHE_EXPIRY_MILLIS = "cacheExpiryMillis";
+
+  /**
+   * Key of the name of the method's {@link StaticFactoryMethod.Scope}. Missing for the default.
+   */
+  static final String SCOPE = "scope";
+
+  /**
+   * Key of the maximum size of the pool of a pooled method. Missing for the default.
+   */
+  static final String POOL_SIZE = "poolSize";
+
+  /**
+   * Key of the milliseconds an object may stay idle in the pool of a pooled method. Missing for the default.
+   */
+  static final String POOL_IDLE_MILLIS = "poolIdleMillis";
+
+  /**
+   * Key prefix of the values of the {@link StaticFactoryMethod#keys()}, followed by the position of the value, e.g. {@code keys.0}. Missing if there are none.
+   */
+  static final String KEYS = "keys";
+
+  /**
+   * Key prefix of the minimum ({@code range.0}) and maximum ({@code range.1}) of the {@link StaticFactoryMethod#range()}. Missing if there is none.
+   */
+  static final String RANGE = "range";
+
+  /**
+   * Key prefix of the values of the {@link StaticFactoryMethod#prefix()}, followed by the position of the value, e.g. {@code prefix.0}. Missing if there are none.
+   */
+  static final String PREFIX = "prefix";
+
+  /**
+   * Key of the {@link StaticFactoryMethod#pattern()}. Missing if there is none.
+   */
+  static final String PATTERN = "pattern";
+
+  /**
+   * Key of the {@link StaticFactoryMethod#expression()}. Missing if there is none.
+   */
+  static final String EXPRESSION = "expression";
+
+  private FactoryIndex() {
+  }
+
+  /**
+   * Sets a list of values, each one as property of the given key followed by its position.
+   *
+   * @param entry the entry to set the values in
+   * @param key the key of the list
+   * @param values the values to set
+   */
+  static void setValues(final Properties entry, final String key, final List<String> values) {
+    for (int i = 0; i < values.size(); i++) {
+      entry.setProperty(key + "." + i, values.get(i));
+    }
+  }
+
+  /**
+   * Gets a list of values set by {@link #setValues(Properties, String, List)}.
+   *
+   * @param entry the entry to get the values from
+   * @param key the key of the list
+   * @return the values, empty if there are none
+   */
+  static String[] getValues(final Properties entry, final String key) {
+    final List<String> ret = new ArrayList<>();
+    for (String value = entry.getProperty(key + ".0"); value != null; value = entry.getProperty(key + "." + ret.size())) {
+      ret.add(value);
+    }
+    return ret.toArray(new String[ret.size()]);
+  }
+
+  /**
+   * Writes the given entries in the index format.
+   *
+   * @param entries the entries to write
+   * @param out the stream to write to. Not closed by this method.
+   * @throws IOException in case writing fails
+   */
+  static void write(final Collection<Properties> entries, final OutputStream out) throws IOException {
+    final PrintWriter pw = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.ISO_8859_1));
+    int number = 0;
+    for (final Properties entry : entries) {
+      for (final String key : new TreeSet<>(entry.stringPropertyNames())) {
+        pw.println(toLine(number + "." + key, entry.getProperty(key)));
+      }
+      number++;
+    }
+    pw.flush();
+  }
+
+  /**
+   * Reads all entries from the given stream.
+   * <p>The properties are grouped by the number of their entry in a single pass, so reading takes linear time in the size of the index.</p>
+   *
+   * @param in the stream to read from. Not closed by this method.
+   * @return the entries in the order they were written
+   * @throws IOException in case reading fails
+   */
+  static List<Properties> read(final InputStream in) throws IOException {
+    final Properties all = new Properties();
+    all.load(in);
+
+    final Map<String, Properties> byNumber = new HashMap<>();
+    for (final String key : all.stringPropertyNames()) {
+      final int dot = key.indexOf('.');
+      if (dot > 0) {
+        byNumber.computeIfAbsent(key.substring(0, dot), (String number) -> new Properties()).setProperty(key.substring(dot + 1), all.getProperty(key));
+      }
+    }
+
+    final List<Properties> ret = new ArrayList<>();
+    for (Properties entry = byNumber.get("0"); entry != null && entry.containsKey(CLASS); entry = byNumber.get(String.valueOf(ret.size()))) {
+      ret.add(entry);
+    }
+    return ret;
+  }
+
+  /**
+   * Resolves a type stored as field descriptor.
+   *
+   * @param descriptor the descriptor of the type
+   * @param loader the loader to use to load the type
+   * @return the resolved type
+   * @throws TypeNotPresentException in case the type cannot be found
+   */
+  static Class<?> toClass(final String descriptor, final ClassLoader loader) {
+    return MethodType.fromMethodDescriptorString("()" + descriptor, loader).returnType();
+  }
+
+  /**
+   * Creates a single escaped properties line. {@link Properties#store(OutputStream, String)} is used for escaping only, as it writes a time stamp and an unpredictable order otherwise.
+   */
+  private static String toLine(final String key, final String value) throws IOException {
+    final Properties single = new Properties();
+    single.setProperty(key, value);
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    single.store(bytes, null);
+    // the first line is the time stamp comment
+    final String[] lines = new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1).split("\\R");
+    return lines[lines.length - 1];
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * Invokes a single static factory method.
+ * <p>
+ * Implementations are generated by the {@link StaticFactoryProcessor} for every annotated method. They call the factory method directly, so no reflection is involved when creating objects.<br>
+ * This interface is public only to be reachable by the generated classes. It is not meant to be implemented by clients.
+ * </p>
+ * <p>Besides {@link #invoke(Object...)} there are methods for a fixed number of up to {@value #MAX_FIXED_ARITY} arguments, used to invoke factory methods without allocating an argument array. By
+ * default they delegate to {@link #invoke(Object...)}; generated invokers override the one matching the number of parameters of their method.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public interface FactoryInvoker {
+
+  /**
+   * The highest number of arguments a fixed-arity {@code invoke} method exists for.
+   */
+  int MAX_FIXED_ARITY = 4;
+
+  /**
+   * Invokes the factory method with the given arguments.
+   *
+   * @param arguments the arguments to pass to the factory method. Primitive parameters are unboxed following the rules of {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+   * @return the object created by the factory method
+   * @throws IllegalArgumentException in case the number of arguments is wrong or an argument cannot be unboxed to the according primitive parameter
+   * @throws ClassCastException in case an argument does not fit the according parameter
+   * @throws Throwable whatever the factory method throws
+   */
+  Object invoke(Object... arguments) throws Throwable;
+
+  /**
+   * Invokes the factory method without arguments.
+   *
+   * @return the object created by the factory method
+   * @throws Throwable see {@link #invoke(Object...)}
+   */
+  default Object invoke0() throws Throwable {
+    return invoke(new Object[0]);
+  }
+
+  /**
+   * Invokes the factory method with a single argument.
+   *
+   * @param argument0 the argument
+   * @return the object created by the factory method
+   * @throws Throwable see {@link #invoke(Object...)}
+   */
+  default Object invoke1(final Object argument0) throws Throwable {
+    return invoke(new Object[] {argument0});
+  }
+
+  /**
+   * Invokes the factory method with two arguments.
+   *
+   * @param argument0 the first argument
+   * @param argument1 the second argument
+   * @return the object created by the factory method
+   * @throws Throwable see {@link #invoke(Object...)}
+   */
+  default Object invoke2(final Object argument0, final Object argument1) throws Throwable {
+    return invoke(new Object[] {argument0, argument1});
+  }
+
+  /**
+   * Invokes the factory method with three arguments.
+   *
+   * @param argument0 the first argument
+   * @param argument1 the second argument
+   * @param argument2 the third argument
+   * @return the object created by the factory method
+   * @throws Throwable see {@link #invoke(Object...)}
+   */
+  default Object invoke3(final Object argument0, final Object argument1, final Object argument2) throws Throwable {
+    return invoke(new Object[] {argument0, argument1, argument2});
+  }
+
+  /**
+   * Invokes the factory method with four arguments.
+   *
+   * @param argument0 the first argument
+   * @param argument1 the second argument
+   * @param argument2 the third argument
+   * @param argument3 the fourth argument
+   * @return the object created by the factory method
+   * @throws Throwable see {@link #invoke(Object...)}
+   */
+  default Object invoke4(final Object argument0, final Object argument1, final Object argument2, final Object argument3) throws Throwable {
+    return invoke(new Object[] {argument0, argument1, argument2, argument3});
+  }
+}
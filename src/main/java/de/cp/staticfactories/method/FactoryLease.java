@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * An object created by a static factory method, leased by {@link StaticFactoryUtil#borrow(Class, Object, Object...)}.
+ * <p>Closing the lease returns the object to the pool of its factory method, if the method declares the {@link StaticFactoryMethod.Scope#POOLED pooled scope}. The object must not be used
+ * afterwards. A lease belongs to a single user and is not thread-safe.</p>
+ *
+ * @param <T> the type of the leased object
+ * @author cperv
+ * @version 0.2
+ */
+public final class FactoryLease<T> implements AutoCloseable {
+
+  private final T instance;
+  private final FactoryInvoker invoker;
+  private boolean closed;
+
+  @SuppressWarnings("unchecked")
+  FactoryLease(final Object instance, final FactoryInvoker invoker) {
+    this.instance = (T) instance;
+    this.invoker = invoker;
+  }
+
+  /**
+   * Gets the leased object.
+   *
+   * @return the object, never {@code null}
+   * @throws IllegalStateException in case the lease was closed already
+   */
+  public T get() {
+    if (closed) {
+      throw new IllegalStateException("The lease was closed already.");
+    }
+    return instance;
+  }
+
+  /**
+   * Ends the lease, returning the object to the pool it was taken from. Does nothing if the lease was closed already.
+   */
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      if (invoker instanceof PooledInvoker) {
+        ((PooledInvoker) invoker).release(instance);
+      }
+    }
+  }
+}
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds one {@link FactoryRegistry} per class loader, which is loaded lazily on first usage.
+ * <p>
+ * Class loaders are referenced weakly, so they can be unloaded, e.g. when a web application is redeployed. The registry of a loader stays loaded as long as the loader is alive, so it is never
+ * loaded again from the class path while it is in use and its singletons, pools and caches are kept. As a registry references the classes of its loader, holding it strongly here would keep the
+ * loader alive as well. Instead it is anchored at one of the loader's own classes by a {@link ClassValue}, which makes it reachable from the loader only. Registries not containing any class of
+ * their loader do not keep it alive, so they are referenced strongly. Calling {@link #release(ClassLoader)} frees a registry right away.
+ * </p>
+ * <p>
+ * Registries are immutable snapshots. Each loader has a holder publishing its current snapshot through an atomic reference. A reload builds the new snapshot aside and publishes it in one step,
+ * so readers never see a partially loaded registry and never wait for a reload. The lock on the map of holders is only taken to find the holder of another loader than the one used last, never
+ * while loading.
+ * </p>
+ * <p>Loads of the same loader are single-flight: threads finding a cold registry or requesting a reload while a load is in progress wait for that load and share its result, instead of reading
+ * the services files and loading all classes once more.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class FactoryRegistries {
+
+  /**
+   * The registries anchored at a class of their loader, by that class.
+   */
+  private static final ClassValue<AtomicReference<FactoryRegistry>> ANCHORED = new ClassValue<AtomicReference<FactoryRegistry>>() {
+    @Override
+    protected AtomicReference<FactoryRegistry> computeValue(final Class<?> type) {
+      return new AtomicReference<>();
+    }
+  };
+
+  private final Map<ClassLoader, RegistryHolder> holders = new WeakHashMap<>();
+
+  /**
+   * The holder used last, to get it without locking in case only one loader is in use. Only set while holding the lock on the holders, so a released holder is never published again.
+   */
+  private volatile RegistryHolder lastUsed;
+
+  /**
+   * Gets the registry of the given loader, loading it if this was not done before.
+   *
+   * @param loader the loader to get the registry for
+   * @return the registry of the loader
+   */
+  FactoryRegistry get(final ClassLoader loader) {
+    return getHolder(loader).get();
+  }
+
+  /**
+   * Loads the registry of the given loader again and replaces the current one.
+   *
+   * @param loader the loader to reload the registry for
+   */
+  void reload(final ClassLoader loader) {
+    getHolder(loader).reload();
+  }
+
+  /**
+   * Frees the registry of the given loader. The registry is loaded again, if the loader is used afterwards.
+   *
+   * @param loader the loader to free the registry of
+   */
+  void release(final ClassLoader loader) {
+    final RegistryHolder holder;
+    synchronized (holders) {
+      holder = holders.remove(loader);
+      if (holder != null && lastUsed == holder) {
+        lastUsed = null;
+      }
+    }
+    if (holder != null) {
+      holder.clear();
+    }
+  }
+
+  private RegistryHolder getHolder(final ClassLoader loader) {
+    RegistryHolder ret = lastUsed;
+    if (ret != null && ret.isFor(loader)) {
+      return ret;
+    }
+
+    synchronized (holders) {
+      ret = holders.computeIfAbsent(loader, RegistryHolder::new);
+      lastUsed = ret;
+    }
+    return ret;
+  }
+
+  /**
+   * Publishes the current registry snapshot of a single class loader.
+   */
+  private static final class RegistryHolder {
+
+    private final Reference<ClassLoader> loader;
+
+    /**
+     * The current snapshot, {@code null} if it was not loaded yet or released.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * The load in progress, {@code null} if there is none.
+     */
+    private final AtomicReference<CompletableFuture<FactoryRegistry>> loading = new AtomicReference<>();
+
+    RegistryHolder(final ClassLoader loader) {
+      this.loader = new WeakReference<>(loader);
+    }
+
+    boolean isFor(final ClassLoader classLoader) {
+      return loader.get() == classLoader;
+    }
+
+    /**
+     * Gets the current snapshot, loading it if there is none.
+     */
+    FactoryRegistry get() {
+      final FactoryRegistry ret = Snapshot.getRegistry(snapshot.get());
+      return ret == null ? load(false) : ret;
+    }
+
+    /**
+     * Loads a new snapshot and publishes it, replacing the current one.
+     */
+    void reload() {
+      load(true);
+    }
+
+    /**
+     * Loads and publishes a new snapshot, or waits for the load already in progress.
+     *
+     * @param replace whether to replace a snapshot published since the caller found none
+     * @return the loaded snapshot
+     */
+    private FactoryRegistry load(final boolean replace) {
+      final CompletableFuture<FactoryRegistry> own = new CompletableFuture<>();
+      while (!loading.compareAndSet(null, own)) {
+        final CompletableFuture<FactoryRegistry> running = loading.get();
+        if (running != null) {
+          return await(running);
+        }
+      }
+
+      try {
+        FactoryRegistry ret = replace ? null : Snapshot.getRegistry(snapshot.get());
+        if (ret == null) {
+          final ClassLoader classLoader = loader.get();
+          ret = FactoryRegistryLoader.load(classLoader);
+          Snapshot.clear(snapshot.getAndSet(new Snapshot(ret, classLoader)));
+        }
+        own.complete(ret);
+        return ret;
+      } catch (final RuntimeException | Error ex) {
+        own.completeExceptionally(ex);
+        throw ex;
+      } finally {
+        loading.set(null);
+      }
+    }
+
+    private static FactoryRegistry await(final CompletableFuture<FactoryRegistry> running) {
+      try {
+        return running.join();
+      } catch (final CompletionException ex) {
+        if (ex.getCause() instanceof Error) {
+          throw (Error) ex.getCause();
+        }
+        throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+      }
+    }
+
+    void clear() {
+      Snapshot.clear(snapshot.getAndSet(null));
+    }
+  }
+
+  /**
+   * A loaded registry, either anchored at a class of its loader and referenced weakly, or referenced strongly.
+   */
+  private static final class Snapshot {
+
+    /**
+     * The registry if it is not anchored, {@code null} otherwise.
+     */
+    private final FactoryRegistry registry;
+
+    private final Reference<FactoryRegistry> anchoredRegistry;
+
+    /**
+     * The class the registry is anchored at. Referenced weakly, as it would keep the loader alive as well.
+     */
+    private final Reference<Class<?>> anchor;
+
+    Snapshot(final FactoryRegistry registry, final ClassLoader loader) {
+      final Class<?> anchorClass = findAnchor(registry, loader);
+      if (anchorClass == null) {
+        this.registry = registry;
+        this.anchoredRegistry = null;
+        this.anchor = null;
+      } else {
+        ANCHORED.get(anchorClass).set(registry);
+        this.registry = null;
+        this.anchoredRegistry = new WeakReference<>(registry);
+        this.anchor = new WeakReference<>(anchorClass);
+      }
+    }
+
+    /**
+     * Finds a class declaring factory methods of the given registry that was defined by the given loader.
+     *
+     * @return the class or {@code null} if the registry contains classes of other loaders only
+     */
+    private static Class<?> findAnchor(final FactoryRegistry registry, final ClassLoader loader) {
+      if (loader == null) {
+        return null;
+      }
+      for (final MethodMetaData method : registry.getMethods(null).getMethods()) {
+        if (method.method.getDeclaringClass().getClassLoader() == loader) {
+          return method.method.getDeclaringClass();
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Gets the registry of the given snapshot.
+     *
+     * @param snapshot the snapshot, might be {@code null}
+     * @return the registry or {@code null} if there is no snapshot or the registry was replaced at its anchor meanwhile
+     */
+    static FactoryRegistry getRegistry(final Snapshot snapshot) {
+      if (snapshot == null) {
+        return null;
+      }
+      return snapshot.registry != null ? snapshot.registry : snapshot.anchoredRegistry.get();
+    }
+
+    /**
+     * Drops the given snapshot, which was replaced or released: clears the scopes of its registry and removes it from its anchor.
+     *
+     * @param snapshot the snapshot, might be {@code null}
+     */
+    static void clear(final Snapshot snapshot) {
+      final FactoryRegistry registry = getRegistry(snapshot);
+      if (registry == null) {
+        return;
+      }
+      registry.clearScopes();
+      final Class<?> anchorClass = snapshot.anchor == null ? null : snapshot.anchor.get();
+      if (anchorClass != null) {
+        ANCHORED.get(anchorClass).compareAndSet(registry, null);
+      }
+    }
+  }
+}
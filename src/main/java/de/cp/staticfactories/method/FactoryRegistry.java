@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Immutable snapshot of the static factory methods known at the time the snapshot was loaded.
+ * <p>The methods of a registry are never modified after it was created. To pick up changes of the class path a new registry must be loaded by {@link FactoryRegistryLoader}.<br>
+ * The caches and statistics of resolving the methods belong to the registry as well, so they are dropped together with it on reload.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class FactoryRegistry {
+
+  private final MethodGroup methods;
+
+  /**
+   * The methods resolved before. {@code null} if disabled.
+   */
+  private final LruCache<ResolutionKey, MethodMetaData> resolutionCache;
+
+  /**
+   * The cached results of cacheable methods. {@code null} if there are no such methods or caching is disabled.
+   */
+  private final ResultCache resultCache;
+
+  /**
+   * The requests no method was found for. {@code null} if disabled.
+   */
+  private final NegativeCache negativeCache;
+
+  /**
+   * The number of resolutions that found no method, respectively more than one method accepting the predicate input.
+   */
+  private final LongAdder unmatched = new LongAdder();
+  private final LongAdder ambiguous = new LongAdder();
+
+  /**
+   * The methods by the types they return - either by declaration or by annotation.
+   */
+  private final Map<Class<?>, MethodGroup> methodsByReturnType;
+
+  FactoryRegistry(final Collection<MethodMetaData> methods) {
+    final int resolutionCacheSize = Integer.getInteger(StaticFactoryUtil.RESOLUTION_CACHE_SIZE_PROPERTY, 0);
+    this.resolutionCache = resolutionCacheSize > 0 ? new LruCache<>(resolutionCacheSize) : null;
+    this.methods = new MethodGroup(methods.toArray(new MethodMetaData[methods.size()]));
+    final int resultCacheSize = Integer.getInteger(StaticFactoryUtil.RESULT_CACHE_SIZE_PROPERTY, StaticFactoryUtil.DEFAULT_RESULT_CACHE_SIZE);
+    this.resultCache = resultCacheSize > 0 && this.methods.isCacheable() ? new ResultCache(resultCacheSize) : null;
+    final int negativeCacheSize = Integer.getInteger(StaticFactoryUtil.NEGATIVE_CACHE_SIZE_PROPERTY, StaticFactoryUtil.DEFAULT_NEGATIVE_CACHE_SIZE);
+    this.negativeCache = negativeCacheSize > 0 ? new NegativeCache(negativeCacheSize) : null;
+
+    final Map<Class<?>, Collection<MethodMetaData>> byReturnType = new HashMap<>();
+    for (final MethodMetaData method : methods) {
+      byReturnType.computeIfAbsent(method.methodReturnType, (Class<?> key) -> new LinkedHashSet<>()).add(method);
+      if (method.annotatedReturnType != null) {
+        byReturnType.computeIfAbsent(method.annotatedReturnType, (Class<?> key) -> new LinkedHashSet<>()).add(method);
+      }
+    }
+    this.methodsByReturnType = new HashMap<>();
+    byReturnType.forEach((Class<?> type, Collection<MethodMetaData> typedMethods) -> methodsByReturnType.put(type,
+        new MethodGroup(typedMethods.toArray(new MethodMetaData[typedMethods.size()]))));
+  }
+
+  /**
+   * Gets the factory methods that either return the requested class directly or declare to return it in the annotation.
+   *
+   * @param requestedClass the class to be returned. {@code null} to get all known methods.
+   * @return the fitting methods
+   */
+  MethodGroup getMethods(final Class<?> requestedClass) {
+    if (requestedClass == null) {
+      return methods;
+    }
+    return methodsByReturnType.getOrDefault(requestedClass, MethodGroup.EMPTY);
+  }
+
+  /**
+   * Gets the cache of methods resolved before.
+   *
+   * @return the cache or {@code null} if caching is disabled
+   */
+  LruCache<ResolutionKey, MethodMetaData> getResolutionCache() {
+    return resolutionCache;
+  }
+
+  /**
+   * Gets the cache of results of cacheable methods.
+   *
+   * @return the cache or {@code null} if there is no cacheable method or caching is disabled
+   */
+  ResultCache getResultCache() {
+    return resultCache;
+  }
+
+  /**
+   * Gets the cache of requests no method was found for.
+   *
+   * @return the cache or {@code null} if it is disabled
+   */
+  NegativeCache getNegativeCache() {
+    return negativeCache;
+  }
+
+  /**
+   * Drops the objects kept by the {@link ScopedInvoker scopes} of the methods, which would outlive this registry otherwise. Called once the registry was released or replaced.
+   */
+  void clearScopes() {
+    for (final MethodMetaData method : methods.getMethods()) {
+      if (method.invoker instanceof ScopedInvoker) {
+        ((ScopedInvoker) method.invoker).clear();
+      }
+    }
+  }
+
+  /**
+   * Counts a resolution that did not find exactly one method accepting the predicate input.
+   *
+   * @param matches the number of methods found
+   */
+  void countResolution(final int matches) {
+    if (matches == 0) {
+      unmatched.increment();
+    } else if (matches > 1) {
+      ambiguous.increment();
+    }
+  }
+
+  /**
+   * Gets the current counters of the resolutions done with this registry.
+   *
+   * @return the statistics
+   */
+  FactoryResolutionStatistics getResolutionStatistics() {
+    return new FactoryResolutionStatistics(unmatched.sum(), ambiguous.sum(), negativeCache == null ? 0L : negativeCache.getHits(), negativeCache == null ? 0 : negativeCache.size());
+  }
+}
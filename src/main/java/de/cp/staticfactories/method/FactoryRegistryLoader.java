@@ -0,0 +1,359 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Loads the registered static factory methods from the services files of all jars and creates a {@link FactoryRegistry} out of them.
+ * <p>Loading touches the class path and reads reflection metadata, so it should be done as rarely as possible.</p>
+ * <p>Factory methods described in the index written next to the services file (see {@link FactoryIndex}) are resolved directly. Only classes missing in the index, e.g. as they were compiled by
+ * an older version of the {@link StaticFactoryProcessor}, are scanned for annotated methods.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class FactoryRegistryLoader {
+
+  private static final Logger LOG = LogManager.getLogger(FactoryRegistryLoader.class);
+
+  private static final Predicate<Method> PREDICATE_METHOD_SELECTOR = new IsTestMethodPredicate().and(new IsNotSyntheticTestMethod());
+
+  private FactoryRegistryLoader() {
+  }
+
+  /**
+   * Loads a new registry from all services files visible to the given class loader.
+   * <p>The files of the single jars are parsed in parallel. Afterwards the classes of all of them are loaded in parallel as well, so loading time does not increase much with the number of
+   * jars.</p>
+   *
+   * @param loader the loader to load the services files and the classes with
+   * @return the loaded registry, which is empty in case no services file exists
+   */
+  static FactoryRegistry load(final ClassLoader loader) {
+    final List<URL> resources = getResources(loader);
+    if (resources.isEmpty()) {
+      LOG.info("No services for static factories found.");
+      return new FactoryRegistry(Collections.emptyList());
+    }
+
+    final List<ServicesResource> parsed = resources.parallelStream().map(ServicesResource::parse).collect(Collectors.toList());
+
+    // a class might be listed by multiple jars - take the index entries of the first jar describing it and scan the remaining classes only
+    final Map<String, List<Properties>> indexedClasses = new HashMap<>();
+    parsed.forEach((ServicesResource resource) -> resource.indexEntries.stream()
+        .collect(Collectors.groupingBy((Properties entry) -> entry.getProperty(FactoryIndex.CLASS)))
+        .forEach(indexedClasses::putIfAbsent));
+
+    final Collection<String> scannedClasses = new HashSet<>();
+    parsed.forEach((ServicesResource resource) -> resource.classNames.stream()
+        .filter((String className) -> !indexedClasses.containsKey(className))
+        .forEach(scannedClasses::add));
+    if (!scannedClasses.isEmpty()) {
+      // e.g. classes compiled by an older processor version - common enough not to be worth more than a note
+      LOG.debug(() -> "No index found for " + scannedClasses.size() + " classes, scanning them instead.");
+    }
+
+    final Stream<MethodMetaData> fromIndex = indexedClasses.values().parallelStream()
+        .flatMap(List::stream)
+        .map((Properties entry) -> resolveIndexEntry(entry, loader))
+        .filter(Objects::nonNull);
+    final Stream<MethodMetaData> fromScan = scannedClasses.parallelStream()
+        .flatMap((String className) -> scanClass(className, loader));
+
+    return new FactoryRegistry(Stream.concat(fromIndex, fromScan).collect(Collectors.toList()));
+  }
+
+  private static List<URL> getResources(final ClassLoader loader) {
+    try {
+      return Collections.list(loader.getResources(StaticFactoryUtil.SERVICES_FILE));
+    } catch (final IOException ex) {
+      if (LOG.isErrorEnabled()) {
+        LOG.error("Problems looking up " + StaticFactoryUtil.SERVICES_FILE, ex);
+      }
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Resolves a single index entry.
+   *
+   * @param entry the entry to resolve
+   * @param loader the loader to load the classes with
+   * @return the resolved method or {@code null} in case the entry cannot be resolved
+   */
+  private static MethodMetaData resolveIndexEntry(final Properties entry, final ClassLoader loader) {
+    try {
+      return createMethodMetaData(entry, loader);
+    } catch (final ClassNotFoundException | NoSuchMethodException | TypeNotPresentException | ClassCastException | SecurityException | IllegalArgumentException ex) {
+      if (LOG.isInfoEnabled()) {
+        LOG.info("Couldn't resolve index entry: " + entry + ". See exception details: ", ex);
+      }
+      return null;
+    }
+  }
+
+  private static MethodMetaData createMethodMetaData(final Properties entry, final ClassLoader loader) throws ClassNotFoundException, NoSuchMethodException {
+    final Class<?> clazz = Class.forName(entry.getProperty(FactoryIndex.CLASS), false, loader);
+
+    final MethodType methodType = MethodType.fromMethodDescriptorString(entry.getProperty(FactoryIndex.DESCRIPTOR), loader);
+    final Method method = clazz.getMethod(entry.getProperty(FactoryIndex.METHOD), methodType.parameterArray());
+    final Class<?> annotatedReturnType = FactoryIndex.toClass(entry.getProperty(FactoryIndex.RETURNS), loader);
+
+    Predicate<Object> predicate = null;
+    Class<?> predicateInputType = null;
+    final String predicateDescriptor = entry.getProperty(FactoryIndex.PREDICATE);
+    if (predicateDescriptor != null) {
+      predicate = createPredicate(FactoryIndex.toClass(predicateDescriptor, loader).asSubclass(Predicate.class));
+      if (predicate == null) {
+        return ignoreWithoutPredicate(method);
+      }
+      predicateInputType = FactoryIndex.toClass(entry.getProperty(FactoryIndex.PREDICATE_INPUT), loader);
+    }
+
+    final FactoryInvoker invoker = createInvoker(entry.getProperty(FactoryIndex.INVOKER), method);
+    return invoker == null ? null : new MethodMetaData(method, annotatedReturnType, predicate, predicateInputType, invoker, MethodOptions.of(entry));
+  }
+
+  /**
+   * Creates the invoker generated for the given method. Falls back to one using a method handle if there is no generated invoker or it cannot be created.
+   *
+   * @return the invoker or {@code null} in case the method cannot be invoked at all
+   */
+  private static FactoryInvoker createInvoker(final String invokerName, final Method method) {
+    if (invokerName != null) {
+      try {
+        return Class.forName(invokerName, true, method.getDeclaringClass().getClassLoader()).asSubclass(FactoryInvoker.class).getDeclaredConstructor().newInstance();
+      } catch (final ReflectiveOperationException | ClassCastException ex) {
+        LOG.info(() -> "Cannot create invoker " + invokerName + ", using a method handle for " + method, ex);
+      }
+    }
+    return createMethodHandleInvoker(method);
+  }
+
+  private static FactoryInvoker createMethodHandleInvoker(final Method method) {
+    try {
+      return new MethodHandleInvoker(method);
+    } catch (final IllegalAccessException ex) {
+      LOG.info(() -> "Cannot access factory method " + method, ex);
+      return null;
+    }
+  }
+
+  /**
+   * Scans the given class for annotated methods by reflection.
+   *
+   * @param className the name of the class to scan
+   * @param loader the loader to load the class with
+   * @return the annotations found
+   */
+  private static Stream<MethodMetaData> scanClass(final String className, final ClassLoader loader) {
+    try {
+      final Class<?> clazz = Class.forName(className, false, loader);
+
+      return Arrays.stream(clazz.getDeclaredMethods()).filter((Method method) -> Modifier.isPublic(method.getModifiers())
+              && Modifier.isStatic(method.getModifiers())
+              && method.getAnnotation(StaticFactoryMethod.class) != null)
+              .flatMap(FactoryRegistryLoader::resolveAnnotation)
+              // collect here, as the exceptions are to be handled inside this method
+              .collect(Collectors.toList()).stream();
+
+    } catch (final ClassNotFoundException ex) {
+      if (LOG.isInfoEnabled()) {
+        LOG.info("No class could be found for entry '" + className + "'", ex);
+      }
+    } catch (final SecurityException ex) {
+      if (LOG.isInfoEnabled()) {
+        LOG.info("Couldn't load methods for class: " + className + ". See exception details: ", ex);
+      }
+    }
+    return Stream.empty();
+  }
+
+  private static Stream<MethodMetaData> resolveAnnotation(final Method method) {
+    final FactoryInvoker invoker = createMethodHandleInvoker(method);
+    if (invoker == null) {
+      return Stream.empty();
+    }
+
+    return Arrays.stream(method.getAnnotationsByType(StaticFactoryMethod.class))
+        .map((StaticFactoryMethod annotation) -> resolveAnnotation(method, annotation, invoker))
+        .filter(Objects::nonNull);
+  }
+
+  /**
+   * Resolves a single annotation of the given method. Like an index entry, an annotation that cannot be resolved is skipped on its own, so the other annotations of the class are still taken.
+   *
+   * @return the resolved annotation or {@code null} in case it cannot be resolved
+   */
+  private static MethodMetaData resolveAnnotation(final Method method, final StaticFactoryMethod annotation, final FactoryInvoker invoker) {
+    try {
+      Class<?> annotatedReturnType = null;
+      if (annotation.returns() != Class.class) {
+        annotatedReturnType = annotation.returns();
+      }
+
+      Predicate<Object> predicate = null;
+      Class<?> predicateInputType = null;
+      if (annotation.predicate() != Predicate.class) {
+        predicate = createPredicate(annotation.predicate());
+        if (predicate == null) {
+          return ignoreWithoutPredicate(method);
+        }
+        predicateInputType = getPredicateInputType(predicate);
+      }
+
+      return new MethodMetaData(method, annotatedReturnType, predicate, predicateInputType, invoker, MethodOptions.of(annotation));
+    } catch (final IllegalArgumentException | TypeNotPresentException ex) {
+      if (LOG.isInfoEnabled()) {
+        LOG.info("Couldn't resolve annotation: " + annotation + " of method: " + method + ". See exception details: ", ex);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Logs that the given method is ignored as the predicate it declares cannot be created. The method must not be used without it, as it would accept every input then.
+   *
+   * @param method the method to ignore
+   * @return always {@code null}
+   */
+  private static MethodMetaData ignoreWithoutPredicate(final Method method) {
+    if (LOG.isInfoEnabled()) {
+      LOG.info("Ignoring factory method " + method + ", as its predicate cannot be created.");
+    }
+    return null;
+  }
+
+  /**
+   * Gets the type the given predicate accepts as input, that is the parameter type of its apply method.
+   *
+   * @param predicate the predicate to get the input type of
+   * @return the input type of the predicate
+   */
+  private static Class<?> getPredicateInputType(final Predicate<?> predicate) {
+    /*
+     * due to inheritance we will have at least two "test" methods - one with Object as parameter type and one with the specified type
+     * the method taking the object is "synthetic", so do not take care for it
+     */
+    return Arrays.stream(predicate.getClass().getMethods())
+        .filter(PREDICATE_METHOD_SELECTOR.and((Method m) -> m.getParameterCount() == 1))
+        .findFirst()
+        .<Class<?>>map((Method m) -> m.getParameterTypes()[0])
+        .orElse(Object.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Predicate<T> createPredicate(final Class<? extends Predicate> predicateClass) {
+    Predicate<T> ret = null;
+    try {
+      ret = predicateClass.newInstance();
+    } catch (InstantiationException | IllegalAccessException ex) {
+      LOG.info(() -> "Cannot create object for given predicate class: " + predicateClass, ex);
+    }
+    return ret;
+  }
+
+  private static final class IsTestMethodPredicate implements Predicate<Method> {
+    @Override
+    public boolean test(final Method method) {
+      return "test".equals(method.getName());
+    }
+  }
+
+  private static final class IsNotSyntheticTestMethod implements Predicate<Method> {
+    @Override
+    public boolean test(final Method method) {
+      return !method.isSynthetic();
+    }
+  }
+
+  /**
+   * The content of a single services file and the index next to it.
+   */
+  private static final class ServicesResource {
+
+    private final Collection<String> classNames;
+    private final List<Properties> indexEntries;
+
+    private ServicesResource(final Collection<String> classNames, final List<Properties> indexEntries) {
+      this.classNames = classNames;
+      this.indexEntries = indexEntries;
+    }
+
+    private static ServicesResource parse(final URL url) {
+      final Properties properties = new Properties();
+      try (final InputStream is = url.openStream()) {
+        properties.load(is);
+      } catch (final IOException ex) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error("Problems opening a stream for " + url, ex);
+        }
+      }
+
+      return new ServicesResource(properties.stringPropertyNames(), readIndex(getIndexUrl(url)));
+    }
+
+    /**
+     * Gets the URL of the index belonging to the given services file. The index is always written next to the services file.
+     */
+    private static URL getIndexUrl(final URL servicesUrl) {
+      final String external = servicesUrl.toExternalForm();
+      try {
+        return new URL(external.substring(0, external.length() - StaticFactoryUtil.SERVICES_FILE.length()) + StaticFactoryUtil.INDEX_FILE);
+      } catch (final MalformedURLException ex) {
+        LOG.info(() -> "No index can be derived from " + servicesUrl, ex);
+        return null;
+      }
+    }
+
+    private static List<Properties> readIndex(final URL url) {
+      if (url == null) {
+        return Collections.emptyList();
+      }
+
+      try (final InputStream is = url.openStream()) {
+        return FactoryIndex.read(is);
+      } catch (final IOException ex) {
+        // the classes are scanned instead, which is noted once for all jars when loading
+        return Collections.emptyList();
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * Snapshot of the counters of the resolutions of factory methods, see {@link StaticFactoryUtil#getResolutionStatistics()}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public final class FactoryResolutionStatistics {
+
+  private final long unmatched;
+  private final long ambiguous;
+  private final long negativeCacheHits;
+  private final int negativeCacheSize;
+
+  FactoryResolutionStatistics(final long unmatched, final long ambiguous, final long negativeCacheHits, final int negativeCacheSize) {
+    this.unmatched = unmatched;
+    this.ambiguous = ambiguous;
+    this.negativeCacheHits = negativeCacheHits;
+    this.negativeCacheSize = negativeCacheSize;
+  }
+
+  /**
+   * Gets the number of requests no method with a predicate accepting the predicate input was found for.
+   *
+   * @return the count of unmatched requests, including those answered by the negative cache
+   */
+  public long getUnmatched() {
+    return unmatched;
+  }
+
+  /**
+   * Gets the number of requests more than one method with a predicate accepting the predicate input was found for.
+   *
+   * @return the count of ambiguous requests
+   */
+  public long getAmbiguous() {
+    return ambiguous;
+  }
+
+  /**
+   * Gets the number of requests answered by the negative cache without evaluating any predicate.
+   *
+   * @return the hit count of the negative cache
+   */
+  public long getNegativeCacheHits() {
+    return negativeCacheHits;
+  }
+
+  /**
+   * Gets the number of requests currently remembered to find no method.
+   *
+   * @return the size of the negative cache
+   */
+  public int getNegativeCacheSize() {
+    return negativeCacheSize;
+  }
+
+  @Override
+  public String toString() {
+    return "FactoryResolutionStatistics[unmatched=" + unmatched + ", ambiguous=" + ambiguous + ", negativeCacheHits=" + negativeCacheHits + ", negativeCacheSize=" + negativeCacheSize + "]";
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.JavaFileObject;
+
+/**
+ * Writes the source of a {@link FactoryInvoker} calling a single static factory method directly.
+ * <p>The invoker is placed in the package of the class enclosing the factory method. Its name is derived from the enclosing class' and the method's names, e.g.
+ * {@code Outer_Inner_create_StaticFactoryInvoker}.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class InvokerSourceWriter {
+
+  private static final String SUFFIX = "_StaticFactoryInvoker";
+
+  private InvokerSourceWriter() {
+  }
+
+  /**
+   * Writes the invoker for the given method.
+   *
+   * @param processingEnv the environment of the calling processor
+   * @param method the factory method to write the invoker for
+   * @param enclosingClazz the class enclosing the method
+   * @param generatedNames the names of all invokers generated so far, used to avoid clashes of overloaded methods. The name of the written invoker is added.
+   * @return the binary name of the generated invoker
+   * @throws IOException in case the source file cannot be written
+   */
+  static String write(final ProcessingEnvironment processingEnv, final ExecutableElement method, final TypeElement enclosingClazz, final Collection<String> generatedNames)
+      throws IOException {
+    final String packageName = processingEnv.getElementUtils().getPackageOf(enclosingClazz).getQualifiedName().toString();
+    final String packagePrefix = packageName.isEmpty() ? "" : packageName + ".";
+    final String enclosingBinaryName = processingEnv.getElementUtils().getBinaryName(enclosingClazz).toString();
+    final String baseName = enclosingBinaryName.substring(packagePrefix.length()).replace('$', '_') + "_" + method.getSimpleName();
+
+    String simpleName = baseName + SUFFIX;
+    for (int counter = 1; !generatedNames.add(packagePrefix + simpleName); counter++) {
+      simpleName = baseName + counter + SUFFIX;
+    }
+
+    final JavaFileObject file = processingEnv.getFiler().createSourceFile(packagePrefix + simpleName, enclosingClazz);
+    try (final PrintWriter pw = new PrintWriter(file.openWriter())) {
+      if (!packageName.isEmpty()) {
+        pw.println("package " + packageName + ";");
+        pw.println();
+      }
+      pw.println("/**");
+      pw.println(" * Invokes {@link " + enclosingClazz.getQualifiedName() + "#" + method.getSimpleName() + "} without reflection.");
+      pw.println(" * Generated by " + StaticFactoryProcessor.class.getName() + " - do not edit.");
+      pw.println(" */");
+      pw.println("public final class " + simpleName + " implements " + FactoryInvoker.class.getName() + " {");
+      pw.println();
+      pw.println("  @Override");
+      pw.println("  @SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+      pw.println("  public Object invoke(final Object... arguments) throws Throwable {");
+      pw.println("    if (arguments.length != " + method.getParameters().size() + ") {");
+      pw.println("      throw new IllegalArgumentException(\"wrong number of arguments\");");
+      pw.println("    }");
+      pw.println("    return " + enclosingClazz.getQualifiedName() + "." + method.getSimpleName() + "(" + getArguments(method.getParameters(), processingEnv.getTypeUtils(), true) + ");");
+      pw.println("  }");
+      if (method.getParameters().size() <= FactoryInvoker.MAX_FIXED_ARITY) {
+        pw.println();
+        pw.println("  @Override");
+        pw.println("  @SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        pw.println("  public Object invoke" + method.getParameters().size() + "(" + getParameters(method.getParameters().size()) + ") throws Throwable {");
+        pw.println("    return " + enclosingClazz.getQualifiedName() + "." + method.getSimpleName() + "(" + getArguments(method.getParameters(), processingEnv.getTypeUtils(), false) + ");");
+        pw.println("  }");
+      }
+      pw.println("}");
+    }
+    return packagePrefix + simpleName;
+  }
+
+  /**
+   * Creates the parameter list of a fixed-arity {@code invoke} method.
+   */
+  private static String getParameters(final int count) {
+    final StringBuilder builder = new StringBuilder();
+    for (int index = 0; index < count; index++) {
+      if (index > 0) {
+        builder.append(", ");
+      }
+      builder.append("final Object argument").append(index);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Creates the argument list of the call, converting every argument to the type of the according parameter.
+   *
+   * @param fromArray whether the arguments are taken from the {@code arguments} array or from the parameters of a fixed-arity method
+   */
+  private static String getArguments(final List<? extends VariableElement> parameters, final Types types, final boolean fromArray) {
+    final StringBuilder builder = new StringBuilder();
+    for (int index = 0; index < parameters.size(); index++) {
+      if (index > 0) {
+        builder.append(", ");
+      }
+      builder.append(getArgument(parameters.get(index).asType(), fromArray ? "arguments[" + index + "]" : "argument" + index, types));
+    }
+    return builder.toString();
+  }
+
+  private static String getArgument(final TypeMirror type, final String argument, final Types types) {
+    final String unboxer = FactoryArguments.class.getName();
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return unboxer + ".toBoolean(" + argument + ")";
+      case BYTE:
+        return unboxer + ".toByte(" + argument + ")";
+      case CHAR:
+        return unboxer + ".toChar(" + argument + ")";
+      case SHORT:
+        return unboxer + ".toShort(" + argument + ")";
+      case INT:
+        return unboxer + ".toInt(" + argument + ")";
+      case LONG:
+        return unboxer + ".toLong(" + argument + ")";
+      case FLOAT:
+        return unboxer + ".toFloat(" + argument + ")";
+      case DOUBLE:
+        return unboxer + ".toDouble(" + argument + ")";
+      default:
+        return "(" + getSourceName(type, types) + ") " + argument;
+    }
+  }
+
+  /**
+   * Gets the name of the erasure of the given type as it is to be used in source code.
+   */
+  private static String getSourceName(final TypeMirror type, final Types types) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return getSourceName(((ArrayType) type).getComponentType(), types) + "[]";
+      case DECLARED:
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+      case TYPEVAR:
+        return getSourceName(types.erasure(type), types);
+      default:
+        return type.toString();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A thread safe cache with a maximum size, evicting the least recently used entries approximately once it is full.
+ * <p>
+ * Lookups neither lock nor allocate: the entries are kept in a {@link ConcurrentHashMap} and each entry just records the time it was used last. Once the cache grows beyond its maximum size, the
+ * thread adding the entry evicts the least recently used tenth of the entries in one batch. Other threads keep reading and writing meanwhile and skip evicting themselves, so the cache might
+ * exceed its maximum size for a short time.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @author cperv
+ * @version 0.2
+ */
+final class LruCache<K, V> {
+
+  private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+  private final int maximumSize;
+
+  /**
+   * The number of entries evicted at least once the cache is full.
+   */
+  private final int evictionBatch;
+
+  /**
+   * Whether a thread is evicting entries.
+   */
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maximumSize the maximum number of entries
+   */
+  LruCache(final int maximumSize) {
+    this.maximumSize = maximumSize;
+    this.evictionBatch = Math.max(1, maximumSize / 10);
+  }
+
+  /**
+   * Gets the value cached for the given key.
+   *
+   * @param key the key to get the value for
+   * @return the value or {@code null} if none is cached
+   */
+  V get(final K key) {
+    final Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    entry.lastUsed = System.nanoTime();
+    return entry.value;
+  }
+
+  /**
+   * Caches the given value, evicting the least recently used entries if the cache is full.
+   *
+   * @param key the key of the value
+   * @param value the value to cache
+   */
+  void put(final K key, final V value) {
+    entries.put(key, new Entry<>(value));
+    if (entries.size() > maximumSize) {
+      evict();
+    }
+  }
+
+  /**
+   * Removes the value cached for the given key.
+   *
+   * @param key the key of the value
+   */
+  void remove(final K key) {
+    entries.remove(key);
+  }
+
+  /**
+   * Gets the number of cached entries.
+   *
+   * @return the number of entries
+   */
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * Removes the least recently used entries, so the cache is at least one batch below its maximum size. Returns immediately if another thread is evicting already.
+   */
+  private void evict() {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      final long[] lastUsed = entries.values().stream().mapToLong((Entry<V> entry) -> entry.lastUsed).toArray();
+      final int excess = lastUsed.length - maximumSize + evictionBatch;
+      if (excess > 0) {
+        Arrays.sort(lastUsed);
+        final long threshold = lastUsed[Math.min(excess, lastUsed.length) - 1];
+        entries.values().removeIf((Entry<V> entry) -> entry.lastUsed <= threshold);
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  /**
+   * A cached value and the time it was used last.
+   */
+  private static final class Entry<V> {
+
+    private final V value;
+
+    /**
+     * The {@link System#nanoTime() time} the value was used last. Not volatile, as a stale time just makes eviction a bit less accurate.
+     */
+    private long lastUsed = System.nanoTime();
+
+    private Entry(final V value) {
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Immutable syntax tree of a {@link StaticFactoryMethod#expression() matcher expression}.
+ * <p>
+ * The expression is parsed by the {@link StaticFactoryProcessor} to validate it and again when loading the registry, where it is compiled into a {@link MethodHandle} of the type
+ * {@code (Object)boolean}. The grammar is:
+ * </p>
+ * <pre>
+ * or         := and ( '||' and )*
+ * and        := unary ( '&amp;&amp;' unary )*
+ * unary      := '!' unary | '(' or ')' | comparison
+ * comparison := 'it' ( '==' | '!=' ) value | 'it' 'instanceof' type
+ * value      := 'null' | 'true' | 'false' | string | integer
+ * </pre>
+ * <p>Strings are enclosed in double quotes and may escape quotes and backslashes by a backslash. Types are given by their canonical name, types without a package are taken from
+ * {@code java.lang}.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class MatcherExpression {
+
+  /**
+   * The kind of a node of the syntax tree.
+   */
+  enum Kind {
+    OR, AND, NOT, EQUALS, NOT_EQUALS, INSTANCE_OF
+  }
+
+  private static final MethodType TEST_TYPE = MethodType.methodType(boolean.class, Object.class);
+
+  private static final MethodHandle IS_EQUAL;
+  private static final MethodHandle NOT;
+  private static final MethodHandle IS_INSTANCE;
+  private static final MethodHandle TRUE = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true), 0, Object.class);
+  private static final MethodHandle FALSE = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0, Object.class);
+
+  static {
+    try {
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      IS_EQUAL = lookup.findStatic(MatcherExpression.class, "isEqual", MethodType.methodType(boolean.class, Object.class, Object.class));
+      NOT = lookup.findStatic(MatcherExpression.class, "not", MethodType.methodType(boolean.class, boolean.class));
+      IS_INSTANCE = lookup.findVirtual(Class.class, "isInstance", TEST_TYPE);
+    } catch (final NoSuchMethodException | IllegalAccessException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+
+  final Kind kind;
+
+  /**
+   * The operands of {@link Kind#OR}, {@link Kind#AND} and {@link Kind#NOT}. {@code right} is {@code null} for the latter.
+   */
+  final MatcherExpression left;
+  final MatcherExpression right;
+
+  /**
+   * The value compared to, either {@code null}, a {@link Boolean}, a {@link String} or a {@link Long}, or the name of the type for {@link Kind#INSTANCE_OF}.
+   */
+  final Object value;
+
+  private MatcherExpression(final Kind kind, final MatcherExpression left, final MatcherExpression right, final Object value) {
+    this.kind = kind;
+    this.left = left;
+    this.right = right;
+    this.value = value;
+  }
+
+  /**
+   * Parses the given expression.
+   *
+   * @param expression the expression to parse
+   * @return the root of the syntax tree
+   * @throws IllegalArgumentException in case the expression does not follow the grammar
+   */
+  static MatcherExpression parse(final String expression) {
+    final Parser parser = new Parser(expression);
+    final MatcherExpression ret = parser.parseOr();
+    parser.skipWhitespace();
+    if (parser.position < expression.length()) {
+      throw parser.error("end of expression");
+    }
+    return ret;
+  }
+
+  /**
+   * Adds the names of all types checked by {@code instanceof} to the given collection.
+   *
+   * @param names the collection to add the names to
+   */
+  void collectTypeNames(final Collection<String> names) {
+    if (kind == Kind.INSTANCE_OF) {
+      names.add((String) value);
+    }
+    if (left != null) {
+      left.collectTypeNames(names);
+    }
+    if (right != null) {
+      right.collectTypeNames(names);
+    }
+  }
+
+  /**
+   * Compiles this expression into a method handle testing the predicate input.
+   *
+   * @param loader the loader to load the types checked by {@code instanceof} with
+   * @return a handle of the type {@code (Object)boolean}
+   * @throws ClassNotFoundException in case a type checked by {@code instanceof} cannot be found
+   */
+  MethodHandle compile(final ClassLoader loader) throws ClassNotFoundException {
+    switch (kind) {
+      case OR:
+        return MethodHandles.guardWithTest(left.compile(loader), TRUE, right.compile(loader));
+      case AND:
+        return MethodHandles.guardWithTest(left.compile(loader), right.compile(loader), FALSE);
+      case NOT:
+        return MethodHandles.filterReturnValue(left.compile(loader), NOT);
+      case EQUALS:
+        return MethodHandles.insertArguments(IS_EQUAL, 1, value);
+      case NOT_EQUALS:
+        return MethodHandles.filterReturnValue(MethodHandles.insertArguments(IS_EQUAL, 1, value), NOT);
+      default:
+        return IS_INSTANCE.bindTo(loadType((String) value, loader));
+    }
+  }
+
+  /**
+   * Loads the type of the given canonical name, trying the names of nested classes if there is no top level class of the name.
+   */
+  private static Class<?> loadType(final String canonicalName, final ClassLoader loader) throws ClassNotFoundException {
+    String name = canonicalName;
+    while (true) {
+      try {
+        return Class.forName(name, false, loader);
+      } catch (final ClassNotFoundException ex) {
+        final int lastDot = name.lastIndexOf('.');
+        if (lastDot < 0) {
+          throw new ClassNotFoundException(canonicalName, ex);
+        }
+        name = name.substring(0, lastDot) + '$' + name.substring(lastDot + 1);
+      }
+    }
+  }
+
+  /**
+   * Compares the predicate input to a value of an expression. Integral numbers are compared by their value, strings like {@link StaticFactoryMethod#keys() keys}.
+   */
+  private static boolean isEqual(final Object input, final Object value) {
+    if (value instanceof Long) {
+      return MethodGroup.isIntegral(input) && ((Number) input).longValue() == (Long) value;
+    }
+    if (value instanceof String) {
+      return value.equals(MethodGroup.getKey(input));
+    }
+    return Objects.equals(input, value);
+  }
+
+  private static boolean not(final boolean value) {
+    return !value;
+  }
+
+  /**
+   * Recursive descent parser of the grammar.
+   */
+  private static final class Parser {
+
+    private final String expression;
+    private int position;
+
+    private Parser(final String expression) {
+      this.expression = expression;
+    }
+
+    private MatcherExpression parseOr() {
+      MatcherExpression ret = parseAnd();
+      while (consume("||")) {
+        ret = new MatcherExpression(Kind.OR, ret, parseAnd(), null);
+      }
+      return ret;
+    }
+
+    private MatcherExpression parseAnd() {
+      MatcherExpression ret = parseUnary();
+      while (consume("&&")) {
+        ret = new MatcherExpression(Kind.AND, ret, parseUnary(), null);
+      }
+      return ret;
+    }
+
+    private MatcherExpression parseUnary() {
+      if (consume("!")) {
+        return new MatcherExpression(Kind.NOT, parseUnary(), null, null);
+      }
+      if (consume("(")) {
+        final MatcherExpression ret = parseOr();
+        if (!consume(")")) {
+          throw error("')'");
+        }
+        return ret;
+      }
+      if (!consumeWord("it")) {
+        throw error("'!', '(' or 'it'");
+      }
+      if (consume("==")) {
+        return new MatcherExpression(Kind.EQUALS, null, null, parseValue());
+      }
+      if (consume("!=")) {
+        return new MatcherExpression(Kind.NOT_EQUALS, null, null, parseValue());
+      }
+      if (consumeWord("instanceof")) {
+        final String type = parseName();
+        return new MatcherExpression(Kind.INSTANCE_OF, null, null, type.indexOf('.') < 0 ? "java.lang." + type : type);
+      }
+      throw error("'==', '!=' or 'instanceof'");
+    }
+
+    private Object parseValue() {
+      if (consumeWord("null")) {
+        return null;
+      }
+      if (consumeWord("true")) {
+        return Boolean.TRUE;
+      }
+      if (consumeWord("false")) {
+        return Boolean.FALSE;
+      }
+      skipWhitespace();
+      if (position < expression.length() && expression.charAt(position) == '"') {
+        return parseString();
+      }
+      final int start = position;
+      if (position < expression.length() && expression.charAt(position) == '-') {
+        position++;
+      }
+      while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+        position++;
+      }
+      try {
+        return Long.valueOf(expression.substring(start, position));
+      } catch (final NumberFormatException ex) {
+        position = start;
+        throw error("a value");
+      }
+    }
+
+    private String parseString() {
+      final StringBuilder ret = new StringBuilder();
+      // skip the opening quote
+      position++;
+      while (position < expression.length()) {
+        final char c = expression.charAt(position++);
+        if (c == '"') {
+          return ret.toString();
+        }
+        if (c == '\\' && position < expression.length()) {
+          ret.append(expression.charAt(position++));
+        } else {
+          ret.append(c);
+        }
+      }
+      throw error("closing '\"'");
+    }
+
+    private String parseName() {
+      skipWhitespace();
+      final int start = position;
+      while (position < expression.length() && (Character.isJavaIdentifierPart(expression.charAt(position)) || expression.charAt(position) == '.')) {
+        position++;
+      }
+      if (start == position || !Character.isJavaIdentifierStart(expression.charAt(start))) {
+        position = start;
+        throw error("a type name");
+      }
+      return expression.substring(start, position);
+    }
+
+    private boolean consume(final String token) {
+      skipWhitespace();
+      if (expression.startsWith(token, position)) {
+        position += token.length();
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Consumes the given word, unless it is only the beginning of a longer identifier.
+     */
+    private boolean consumeWord(final String word) {
+      skipWhitespace();
+      final int end = position + word.length();
+      if (expression.startsWith(word, position) && (end == expression.length() || !Character.isJavaIdentifierPart(expression.charAt(end)))) {
+        position = end;
+        return true;
+      }
+      return false;
+    }
+
+    private void skipWhitespace() {
+      while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+        position++;
+      }
+    }
+
+    private IllegalArgumentException error(final String expected) {
+      return new IllegalArgumentException(String.format("Expected %s at position %d of expression '%s'", expected, position, expression));
+    }
+  }
+}
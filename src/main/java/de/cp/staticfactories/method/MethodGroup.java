@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable group of factory methods, e.g. all methods returning the same type.
+ * <p>
+ * Besides the methods themselves, the group caches for every predicate input class which of its methods have a predicate accepting that class. After the first lookup of a class, the candidates
+ * are taken from a {@link ClassValue}, which is lock-free and does not allocate.<br>
+ * The cached values are released lazily by the JVM once the group is unreachable, e.g. after the registry was reloaded.
+ * </p>
+ * <p>Methods declaring {@link StaticFactoryMethod#keys() keys} are dispatched by a hash table from key to candidates, built together with the candidates of an input class. The candidates of a
+ * key contain the methods declaring the key and all methods without keys, in the order of the group. These are further restricted by the {@link StaticFactoryMethod#range() ranges} of the methods
+ * using a {@link RangeIndex}. Finally the methods declaring {@link StaticFactoryMethod#prefix() prefixes} or a {@link StaticFactoryMethod#pattern() pattern} are checked by a single
+ * {@link StringMatcher}, which is only used for inputs of type {@link CharSequence}, and the {@link StaticFactoryMethod#expression() expressions} of all methods by one {@link ExpressionChain}.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class MethodGroup {
+
+  /**
+   * A group without any method.
+   */
+  static final MethodGroup EMPTY = new MethodGroup(new MethodMetaData[0]);
+
+  private final MethodMetaData[] methods;
+
+  private final ClassValue<Candidates> candidatesByInputType = new ClassValue<Candidates>() {
+    @Override
+    protected Candidates computeValue(final Class<?> inputType) {
+      return new Candidates(Arrays.stream(methods)
+          .filter((MethodMetaData m) -> m.checkPredicate != null && m.predicateInputType.isAssignableFrom(inputType))
+          .filter((MethodMetaData m) -> !m.options.isStringBased() || CharSequence.class.isAssignableFrom(inputType))
+          .toArray(MethodMetaData[]::new), expressions);
+    }
+  };
+
+  /**
+   * Whether any method of this group is cacheable, so results must be looked up in the cache.
+   */
+  private final boolean cacheable;
+
+  /**
+   * The chain of the expressions of all methods, {@code null} if no method declares one.
+   */
+  private final ExpressionChain expressions;
+
+  MethodGroup(final MethodMetaData[] methods) {
+    this.methods = methods;
+    final ExpressionChain chain = new ExpressionChain(methods);
+    this.expressions = chain.isEmpty() ? null : chain;
+    this.cacheable = Arrays.stream(methods).anyMatch((MethodMetaData m) -> m.options.cacheable);
+  }
+
+  /**
+   * Checks whether results of any method of this group can be cached.
+   *
+   * @return {@code true} if at least one method is cacheable
+   */
+  boolean isCacheable() {
+    return cacheable;
+  }
+
+  /**
+   * Gets all methods of this group.
+   *
+   * @return the methods. Must not be modified.
+   */
+  MethodMetaData[] getMethods() {
+    return methods;
+  }
+
+  /**
+   * Gets the candidates of this group for predicate inputs of the given type, that is the methods having a predicate, keys or a range that accept objects of the type.
+   *
+   * @param inputType the class of the predicate input
+   * @return the candidates
+   */
+  Candidates getCandidates(final Class<?> inputType) {
+    return candidatesByInputType.get(inputType);
+  }
+
+  /**
+   * Gets the key of the given predicate input, see {@link StaticFactoryMethod#keys()}.
+   *
+   * @param input the predicate input
+   * @return the key or {@code null} if the input has none
+   */
+  static String getKey(final Object input) {
+    if (input instanceof String) {
+      return (String) input;
+    }
+    if (input instanceof Enum) {
+      return ((Enum<?>) input).name();
+    }
+    if (isIntegral(input)) {
+      return input.toString();
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether the given predicate input is an integral number, which can be matched by keys and ranges.
+   *
+   * @param input the predicate input
+   * @return {@code true} for instances of {@link Integer}, {@link Long}, {@link Short} and {@link Byte}
+   */
+  static boolean isIntegral(final Object input) {
+    return input instanceof Integer || input instanceof Long || input instanceof Short || input instanceof Byte;
+  }
+
+  /**
+   * The methods of a group accepting a certain predicate input class.
+   */
+  static final class Candidates {
+
+    private final RangeIndex all;
+
+    /**
+     * The methods without keys, used for inputs without a declared key.
+     */
+    private final RangeIndex unkeyed;
+
+    /**
+     * The methods by key. Empty if no method declares keys.
+     */
+    private final Map<String, RangeIndex> byKey;
+
+    /**
+     * The matcher of the string based methods, {@code null} if there are none.
+     */
+    private final StringMatcher strings;
+
+    /**
+     * The chain of the expressions of the group, {@code null} if no method declares one.
+     */
+    private final ExpressionChain expressions;
+
+    /**
+     * Whether all methods accepting the input class are type stable, see {@link #isTypeStable()}.
+     */
+    private final boolean typeStable;
+
+    Candidates(final MethodMetaData[] all, final ExpressionChain expressions) {
+      this.expressions = expressions;
+      this.typeStable = Arrays.stream(all).allMatch((MethodMetaData m) -> m.options.stability == StaticFactoryMethod.Stability.TYPE);
+      this.all = new RangeIndex(all);
+      this.strings = Arrays.stream(all).anyMatch((MethodMetaData m) -> m.options.isStringBased()) ? new StringMatcher(all) : null;
+      final MethodMetaData[] unkeyedMethods = Arrays.stream(all).filter((MethodMetaData m) -> m.options.keys.length == 0).toArray(MethodMetaData[]::new);
+      this.unkeyed = new RangeIndex(unkeyedMethods);
+      if (unkeyedMethods.length == all.length) {
+        this.byKey = Collections.emptyMap();
+        return;
+      }
+
+      final Set<String> keys = new LinkedHashSet<>();
+      Arrays.stream(all).forEach((MethodMetaData m) -> keys.addAll(Arrays.asList(m.options.keys)));
+      this.byKey = new HashMap<>();
+      for (final String key : keys) {
+        final List<MethodMetaData> methodsOfKey = new ArrayList<>();
+        for (final MethodMetaData method : all) {
+          if (method.options.keys.length == 0 || Arrays.asList(method.options.keys).contains(key)) {
+            methodsOfKey.add(method);
+          }
+        }
+        byKey.put(key, new RangeIndex(methodsOfKey.toArray(new MethodMetaData[methodsOfKey.size()])));
+      }
+    }
+
+    /**
+     * Checks whether the methods accepting an input depend on its class only, so a method resolved for one input can be used for all inputs of the same class.
+     * <p>This is checked for all methods accepting the input class, not just the candidates of a single input: methods {@link MethodOptions#isMatchedByValue() matched by value} are never type
+     * stable, so a group containing any of them is not either.</p>
+     *
+     * @return {@code true} if all methods are type stable
+     */
+    boolean isTypeStable() {
+      return typeStable;
+    }
+
+    /**
+     * Gets the candidates for the given predicate input. Methods matched by value are only contained, if the input has one of their keys, is within their range, starts with one of their prefixes,
+     * matches their pattern and fulfills their expression.
+     *
+     * @param input the predicate input, which must be an instance of the class these candidates were created for
+     * @return the candidates in the order of the group. Must not be modified.
+     */
+    MethodMetaData[] get(final Object input) {
+      final MethodMetaData[] ret;
+      if (byKey.isEmpty()) {
+        ret = all.get(input);
+      } else {
+        final String key = getKey(input);
+        ret = (key == null ? unkeyed : byKey.getOrDefault(key, unkeyed)).get(input);
+      }
+      final MethodMetaData[] matchingStrings = strings == null ? ret : strings.filter(ret, input);
+      return expressions == null ? matchingStrings : expressions.filter(matchingStrings, input);
+    }
+  }
+}
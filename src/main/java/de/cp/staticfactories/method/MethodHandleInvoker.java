@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a static factory method through a {@link MethodHandle}. Used for methods no invoker was generated for, e.g. as they were compiled by an older version of the
+ * {@link StaticFactoryProcessor}.
+ * <p>The handle is adapted to the uniform shape {@code (Object[])Object} once, when the registry is loaded. Invoking it does neither check access nor wrap exceptions like
+ * {@link Method#invoke(Object, Object...)} does.<br>
+ * Methods taking up to {@value FactoryInvoker#MAX_FIXED_ARITY} parameters get a second handle of the shape {@code (Object, ...)Object} for the fixed-arity {@code invoke} methods.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class MethodHandleInvoker implements FactoryInvoker {
+
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+  private final MethodHandle handle;
+
+  /**
+   * The handle taking the arguments one by one, or {@code null} if the method takes more than {@value FactoryInvoker#MAX_FIXED_ARITY} parameters.
+   */
+  private final MethodHandle fixedArityHandle;
+
+  private final int parameterCount;
+
+  /**
+   * Creates the invoker for the given method.
+   *
+   * @param method the public static method to invoke
+   * @throws IllegalAccessException in case the method is not accessible, e.g. as its class is not public
+   */
+  MethodHandleInvoker(final Method method) throws IllegalAccessException {
+    final MethodHandle methodHandle = MethodHandles.publicLookup().unreflect(method).asFixedArity();
+    this.parameterCount = method.getParameterCount();
+    this.handle = methodHandle
+        .asSpreader(Object[].class, parameterCount)
+        .asType(INVOKER_TYPE);
+    this.fixedArityHandle = parameterCount <= MAX_FIXED_ARITY ? methodHandle.asType(MethodType.genericMethodType(parameterCount)) : null;
+  }
+
+  @Override
+  public Object invoke(final Object... arguments) throws Throwable {
+    return (Object) handle.invokeExact(arguments);
+  }
+
+  @Override
+  public Object invoke0() throws Throwable {
+    return parameterCount == 0 ? (Object) fixedArityHandle.invokeExact() : FactoryInvoker.super.invoke0();
+  }
+
+  @Override
+  public Object invoke1(final Object argument0) throws Throwable {
+    return parameterCount == 1 ? (Object) fixedArityHandle.invokeExact(argument0) : FactoryInvoker.super.invoke1(argument0);
+  }
+
+  @Override
+  public Object invoke2(final Object argument0, final Object argument1) throws Throwable {
+    return parameterCount == 2 ? (Object) fixedArityHandle.invokeExact(argument0, argument1) : FactoryInvoker.super.invoke2(argument0, argument1);
+  }
+
+  @Override
+  public Object invoke3(final Object argument0, final Object argument1, final Object argument2) throws Throwable {
+    return parameterCount == 3 ? (Object) fixedArityHandle.invokeExact(argument0, argument1, argument2) : FactoryInvoker.super.invoke3(argument0, argument1, argument2);
+  }
+
+  @Override
+  public Object invoke4(final Object argument0, final Object argument1, final Object argument2, final Object argument3) throws Throwable {
+    return parameterCount == 4
+        ? (Object) fixedArityHandle.invokeExact(argument0, argument1, argument2, argument3)
+        : FactoryInvoker.super.invoke4(argument0, argument1, argument2, argument3);
+  }
+}
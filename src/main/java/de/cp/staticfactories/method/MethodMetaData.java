@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.function.Predicate;
+
+/**
+ * Immutable description of a single {@link StaticFactoryMethod} annotation found on a static factory method.
+ * <p>A method carrying the annotation multiple times is described by multiple instances of this class.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class MethodMetaData {
+
+  /**
+   * The predicate of methods {@link MethodOptions#isMatchedByValue() matched by value} only. These are matched by the {@link MethodGroup}, so the predicate accepts any input.
+   */
+  private static final Predicate<Object> KEYS_ONLY = (Object input) -> true;
+
+  final Method method;
+  final Class<?> methodReturnType;
+  final Class<?> annotatedReturnType;
+  /**
+   * The predicate of the annotation, caching its results according to its {@link StaticFactoryMethod.Stability}. {@code null} if the method is neither restricted by a predicate nor {@link MethodOptions#isMatchedByValue() by value}.
+   */
+  final Predicate<Object> checkPredicate;
+
+  /**
+   * The type the predicate accepts as input. Resolved when loading the registry, so it is {@code null} only if there is no predicate and the method is not {@link MethodOptions#isMatchedByValue() matched by value}.
+   */
+  final Class<?> predicateInputType;
+
+  /**
+   * Invokes the method - either a generated invoker or one using a method handle, wrapped according to the method's {@link StaticFactoryMethod.Scope}.
+   */
+  final FactoryInvoker invoker;
+
+  /**
+   * The number of arguments the method takes.
+   */
+  final int parameterCount;
+
+  /**
+   * The types of the method's parameters, taken once to check arguments before invoking it.
+   */
+  final Class<?>[] parameterTypes;
+
+  final MethodOptions options;
+
+  /**
+   * The compiled {@link MethodOptions#expression}, a handle of the type {@code (Object)boolean}. {@code null} if there is none.
+   */
+  final MethodHandle expression;
+
+  MethodMetaData(final Method method, final Class<?> annotatedReturnType, final Predicate<Object> checkPredicate, final Class<?> predicateInputType,
+      final FactoryInvoker invoker, final MethodOptions options) {
+    this.method = method;
+    this.invoker = ScopedInvoker.of(invoker, options);
+    this.parameterCount = method.getParameterCount();
+    this.parameterTypes = method.getParameterTypes();
+    this.options = options;
+    this.methodReturnType = method.getReturnType();
+    this.annotatedReturnType = annotatedReturnType;
+    // methods whose declared predicate cannot be created are dropped on loading, so there is none declared
+    final boolean keysOnly = checkPredicate == null && options.isMatchedByValue();
+    this.checkPredicate = keysOnly ? KEYS_ONLY : CachedPredicate.of(checkPredicate, options.stability);
+    this.predicateInputType = keysOnly ? Object.class : predicateInputType;
+    this.expression = compileExpression(method, options);
+  }
+
+  /**
+   * Compiles the expression of the given options, loading the types it refers to by the loader of the method's class.
+   *
+   * @throws TypeNotPresentException in case a type of the expression cannot be found
+   */
+  private static MethodHandle compileExpression(final Method method, final MethodOptions options) {
+    if (options.expression == null) {
+      return null;
+    }
+    try {
+      return options.expression.compile(method.getDeclaringClass().getClassLoader());
+    } catch (final ClassNotFoundException ex) {
+      throw new TypeNotPresentException(ex.getMessage(), ex);
+    }
+  }
+
+  /**
+   * Checks whether the method can be invoked with the given arguments, that is their number and types fit the method's parameters. Arguments are given as by
+   * {@link StaticFactoryUtil#createObject(MethodMetaData, int, Object, Object, Object, Object, Object[])}.
+   *
+   * @param count the number of arguments
+   * @param argument0 the first argument, if not given as array
+   * @param argument1 the second argument, if not given as array
+   * @param argument2 the third argument, if not given as array
+   * @param argument3 the fourth argument, if not given as array
+   * @param arguments all arguments, or {@code null} if they are given one by one
+   * @return {@code true} if the method accepts the arguments
+   */
+  boolean accepts(final int count, final Object argument0, final Object argument1, final Object argument2, final Object argument3, final Object[] arguments) {
+    if (count != parameterCount) {
+      return false;
+    }
+    if (arguments != null) {
+      for (int i = 0; i < count; i++) {
+        if (!FactoryArguments.isAssignable(parameterTypes[i], arguments[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return (count < 1 || FactoryArguments.isAssignable(parameterTypes[0], argument0))
+        && (count < 2 || FactoryArguments.isAssignable(parameterTypes[1], argument1))
+        && (count < 3 || FactoryArguments.isAssignable(parameterTypes[2], argument2))
+        && (count < 4 || FactoryArguments.isAssignable(parameterTypes[3], argument3));
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+/**
+ * The options of a single {@link StaticFactoryMethod} annotation that do not refer to types, read either from the annotation itself or from its {@link FactoryIndex} entry.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class MethodOptions {
+
+  final StaticFactoryMethod.Stability stability;
+  final StaticFactoryMethod.Scope scope;
+  final int poolSize;
+  final long poolIdleMillis;
+
+  /**
+   * Whether results of the method are cached. Never set for pooled methods.
+   */
+  final boolean cacheable;
+  final long cacheExpiryMillis;
+
+  /**
+   * The keys of the inputs the method is used for, empty if there are none.
+   */
+  final String[] keys;
+
+  /**
+   * The inclusive minimum and maximum of the inputs the method is used for, empty if there is no range.
+   */
+  final long[] range;
+
+  /**
+   * The prefixes of the inputs the method is used for, empty if there are none.
+   */
+  final String[] prefixes;
+
+  /**
+   * The expression the inputs the method is used for must match, {@code null} if there is none.
+   */
+  final Pattern pattern;
+
+  /**
+   * The expression the inputs the method is used for must fulfill, {@code null} if there is none.
+   */
+  final MatcherExpression expression;
+
+  private MethodOptions(final StaticFactoryMethod.Stability stability, final StaticFactoryMethod.Scope scope, final int poolSize, final long poolIdleMillis, final boolean cacheable,
+      final long cacheExpiryMillis, final String[] keys, final long[] range, final String[] prefixes, final String pattern,
+      final String expression) {
+    if (range.length != 0 && (range.length != 2 || range[0] > range[1])) {
+      throw new IllegalArgumentException("Invalid range " + Arrays.toString(range) + ", expected minimum and maximum");
+    }
+    this.keys = keys;
+    this.range = range;
+    this.prefixes = prefixes;
+    this.pattern = pattern.isEmpty() ? null : Pattern.compile(pattern);
+    this.expression = expression.isEmpty() ? null : MatcherExpression.parse(expression);
+    // the methods matched by value cannot be cached by the input's type
+    this.stability = isMatchedByValue() && stability == StaticFactoryMethod.Stability.TYPE ? StaticFactoryMethod.Stability.VALUE : stability;
+    this.scope = scope;
+    this.poolSize = poolSize;
+    this.poolIdleMillis = poolIdleMillis;
+    this.cacheable = cacheable && scope != StaticFactoryMethod.Scope.POOLED;
+    this.cacheExpiryMillis = cacheExpiryMillis;
+  }
+
+  /**
+   * Checks whether the method is restricted to a range of inputs.
+   *
+   * @return {@code true} if there is a range
+   */
+  boolean hasRange() {
+    return range.length > 0;
+  }
+
+  /**
+   * Checks whether the method is restricted to inputs with certain prefixes or matching a pattern.
+   *
+   * @return {@code true} if there are prefixes or a pattern
+   */
+  boolean isStringBased() {
+    return prefixes.length > 0 || pattern != null;
+  }
+
+  /**
+   * Checks whether the method declares keys, a range, prefixes, a pattern or an expression. These are matched by the {@link MethodGroup} instead of a predicate.
+   *
+   * @return {@code true} if the method is restricted to certain values of the input
+   */
+  boolean isMatchedByValue() {
+    return keys.length > 0 || hasRange() || isStringBased() || expression != null;
+  }
+
+  /**
+   * Checks whether the predicate's result is the same for all inputs equal to each other.
+   *
+   * @return {@code true} if the predicate is value or type stable
+   */
+  boolean isValueStable() {
+    return stability == StaticFactoryMethod.Stability.VALUE || stability == StaticFactoryMethod.Stability.TYPE;
+  }
+
+  /**
+   * Reads the options from the given annotation.
+   *
+   * @param annotation the annotation to read
+   * @return the options
+   * @throws IllegalArgumentException in case the annotation declares an invalid range, pattern or expression
+   */
+  static MethodOptions of(final StaticFactoryMethod annotation) {
+    return new MethodOptions(annotation.stability(), annotation.scope(), annotation.poolSize(), annotation.poolIdleMillis(), annotation.cacheable(),
+        annotation.cacheExpiryMillis(), annotation.keys(), annotation.range(), annotation.prefix(), annotation.pattern(),
+        annotation.expression());
+  }
+
+  /**
+   * Reads the options from the given index entry.
+   *
+   * @param entry the index entry to read
+   * @return the options
+   * @throws IllegalArgumentException in case the entry contains an unknown value, a malformed number, an invalid range, pattern or expression
+   */
+  static MethodOptions of(final Properties entry) {
+    return new MethodOptions(StaticFactoryMethod.Stability.valueOf(entry.getProperty(FactoryIndex.STABILITY, StaticFactoryMethod.Stability.NONE.name())),
+        StaticFactoryMethod.Scope.valueOf(entry.getProperty(FactoryIndex.SCOPE, StaticFactoryMethod.Scope.PROTOTYPE.name())),
+        Integer.parseInt(entry.getProperty(FactoryIndex.POOL_SIZE, "8")),
+        Long.parseLong(entry.getProperty(FactoryIndex.POOL_IDLE_MILLIS, "60000")),
+        Boolean.parseBoolean(entry.getProperty(FactoryIndex.CACHEABLE)),
+        Long.parseLong(entry.getProperty(FactoryIndex.CACHE_EXPIRY_MILLIS, "0")),
+        FactoryIndex.getValues(entry, FactoryIndex.KEYS),
+        Arrays.stream(FactoryIndex.getValues(entry, FactoryIndex.RANGE)).mapToLong(Long::parseLong).toArray(),
+        FactoryIndex.getValues(entry, FactoryIndex.PREFIX),
+        entry.getProperty(FactoryIndex.PATTERN, ""),
+        entry.getProperty(FactoryIndex.EXPRESSION, ""));
+  }
+}
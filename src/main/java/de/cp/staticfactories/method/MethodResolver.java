@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.Arrays;
+
+/**
+ * Selects the factory methods whose predicates accept a given predicate input.
+ * <p>
+ * Small candidate sets are filtered by a plain sequential scan, as splitting the work costs more than evaluating the predicates. Only sets of at least {@link #PARALLEL_THRESHOLD} candidates are
+ * filtered in parallel. The threshold can be changed by the system property {@value #PARALLEL_THRESHOLD_PROPERTY}; see {@code MethodResolverBenchmark} for measuring the crossover on a particular
+ * machine.
+ * </p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class MethodResolver {
+
+  /**
+   * Name of the system property defining the number of candidates from which on predicates are evaluated in parallel.
+   */
+  static final String PARALLEL_THRESHOLD_PROPERTY = "de.cp.staticfactories.parallelThreshold";
+
+  /**
+   * The number of candidates from which on predicates are evaluated in parallel.
+   */
+  static final int PARALLEL_THRESHOLD = Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, 8192);
+
+  private static final MethodMetaData[] EMPTY = new MethodMetaData[0];
+
+  private MethodResolver() {
+  }
+
+  /**
+   * Gets all candidates whose predicate returns {@code true} for the given input.
+   *
+   * @param candidates the methods to check. All of them must have a predicate accepting the input's type.
+   * @param predicateInput the input to test the predicates with
+   * @return the accepted candidates in the order they were given
+   */
+  static MethodMetaData[] filter(final MethodMetaData[] candidates, final Object predicateInput) {
+    return filter(candidates, predicateInput, PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Gets all candidates whose predicate returns {@code true} for the given input.
+   *
+   * @param candidates the methods to check. All of them must have a predicate accepting the input's type.
+   * @param predicateInput the input to test the predicates with
+   * @param parallelThreshold the number of candidates from which on the predicates are evaluated in parallel
+   * @return the accepted candidates in the order they were given
+   */
+  static MethodMetaData[] filter(final MethodMetaData[] candidates, final Object predicateInput, final int parallelThreshold) {
+    if (candidates.length >= parallelThreshold) {
+      return Arrays.stream(candidates).parallel()
+          .filter((MethodMetaData m) -> m.checkPredicate.test(predicateInput))
+          .toArray(MethodMetaData[]::new);
+    }
+
+    MethodMetaData[] ret = EMPTY;
+    int size = 0;
+    for (final MethodMetaData candidate : candidates) {
+      if (candidate.checkPredicate.test(predicateInput)) {
+        if (size == ret.length) {
+          ret = Arrays.copyOf(ret, size == 0 ? 1 : size * 2);
+        }
+        ret[size++] = candidate;
+      }
+    }
+    return size == ret.length ? ret : Arrays.copyOf(ret, size);
+  }
+}
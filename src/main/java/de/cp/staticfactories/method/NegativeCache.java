@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers requests no factory method was found for, counting how often a request was answered by it.
+ * <p>The cache is bounded, evicting the least recently used requests once it is full, see {@link LruCache}.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class NegativeCache {
+
+  private final LruCache<ResultKey, Boolean> requests;
+  private final LongAdder hits = new LongAdder();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maximumSize the maximum number of requests remembered
+   */
+  NegativeCache(final int maximumSize) {
+    this.requests = new LruCache<>(maximumSize);
+  }
+
+  /**
+   * Checks whether no method was found for the given request before, counting a hit if so.
+   *
+   * @param key the key of the request
+   * @return {@code true} if the request is known to find no method
+   */
+  boolean contains(final ResultKey key) {
+    if (requests.get(key) == null) {
+      return false;
+    }
+    hits.increment();
+    return true;
+  }
+
+  /**
+   * Remembers that no method was found for the given request.
+   *
+   * @param key the key of the request
+   */
+  void add(final ResultKey key) {
+    requests.put(key, Boolean.TRUE);
+  }
+
+  long getHits() {
+    return hits.sum();
+  }
+
+  int size() {
+    return requests.size();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded, lock-free pool of idle objects.
+ * <p>
+ * Objects are handed out last in, first out, so the most recently used - and most likely still cached - objects are reused first, while the least recently used ones age at the tail. Objects idle
+ * for longer than the maximum idle time are evicted from the tail whenever the pool is used. Objects offered while the pool is full are dropped.
+ * </p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class ObjectPool {
+
+  private final Deque<Idle> idle = new ConcurrentLinkedDeque<>();
+
+  /**
+   * The number of idle objects. Counted separately, as the size of a concurrent deque is expensive to get.
+   */
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final int maxSize;
+
+  /**
+   * The maximum idle time in nanoseconds, {@code 0} to keep idle objects forever.
+   */
+  private final long maxIdleNanos;
+
+  /**
+   * Creates an empty pool.
+   *
+   * @param maxSize the maximum number of idle objects kept
+   * @param maxIdleMillis the time in milliseconds after which an idle object is evicted, {@code 0} to keep idle objects forever
+   */
+  ObjectPool(final int maxSize, final long maxIdleMillis) {
+    this.maxSize = maxSize;
+    this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxIdleMillis));
+  }
+
+  /**
+   * Takes an idle object out of the pool.
+   *
+   * @return the object or {@code null} if the pool is empty
+   */
+  Object poll() {
+    evict();
+    final Idle ret = idle.pollFirst();
+    if (ret == null) {
+      return null;
+    }
+    size.decrementAndGet();
+    return ret.instance;
+  }
+
+  /**
+   * Puts the given object into the pool, unless the pool is full.
+   *
+   * @param instance the object to put
+   */
+  void offer(final Object instance) {
+    evict();
+    // reserve a place first, so the size never exceeds the maximum, not even for a moment
+    int current;
+    do {
+      current = size.get();
+      if (current >= maxSize) {
+        return;
+      }
+    } while (!size.compareAndSet(current, current + 1));
+    idle.offerFirst(new Idle(instance, System.nanoTime()));
+  }
+
+  /**
+   * Gets the number of idle objects.
+   *
+   * @return the size
+   */
+  int size() {
+    return size.get();
+  }
+
+  private void evict() {
+    if (maxIdleNanos == 0L) {
+      return;
+    }
+    final long now = System.nanoTime();
+    Idle oldest = idle.peekLast();
+    while (oldest != null && now - oldest.since > maxIdleNanos) {
+      if (idle.removeLastOccurrence(oldest)) {
+        size.decrementAndGet();
+      }
+      oldest = idle.peekLast();
+    }
+  }
+
+  /**
+   * An idle object and the time since when it is idle.
+   */
+  private static final class Idle {
+
+    private final Object instance;
+    private final long since;
+
+    Idle(final Object instance, final long since) {
+      this.instance = instance;
+      this.since = since;
+    }
+  }
+}
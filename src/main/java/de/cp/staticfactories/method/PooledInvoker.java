@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * Takes objects from the pool of a factory method and invokes the method only if the pool is empty, see {@link StaticFactoryMethod.Scope#POOLED}.
+ * <p>Objects get back into the pool by {@link #release(Object)}, called when a {@link FactoryLease} is closed.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class PooledInvoker extends ScopedInvoker {
+
+  private final ObjectPool pool;
+
+  PooledInvoker(final FactoryInvoker delegate, final ObjectPool pool) {
+    super(delegate);
+    this.pool = pool;
+  }
+
+  @Override
+  Object current() {
+    return pool.poll();
+  }
+
+  @Override
+  Object create(final Creation creation) throws Throwable {
+    return creation.create();
+  }
+
+  /**
+   * Returns the given object to the pool.
+   *
+   * @param instance an object created by this invoker before
+   */
+  void release(final Object instance) {
+    pool.offer(instance);
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Immutable index of methods by the {@link StaticFactoryMethod#range() range} of inputs they are used for.
+ * <p>
+ * The bounds of all ranges split the numbers into segments, in which every number is accepted by the same methods. The index keeps the lower bound of each segment in a sorted array together with
+ * the methods of the segment, so the methods of an input are found by binary search. The methods of a segment are all methods whose range contains it plus the methods without range, in the
+ * order they were given.
+ * </p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class RangeIndex {
+
+  private final MethodMetaData[] all;
+
+  /**
+   * The methods without range, used for inputs that are not integral numbers or below all ranges.
+   */
+  private final MethodMetaData[] unranged;
+
+  /**
+   * The lower bounds of the segments in ascending order. Empty if no method declares a range.
+   */
+  private final long[] lowerBounds;
+
+  /**
+   * The methods of the segments, at the position of their lower bound.
+   */
+  private final MethodMetaData[][] segments;
+
+  RangeIndex(final MethodMetaData[] all) {
+    this.all = all;
+    this.unranged = Arrays.stream(all).filter((MethodMetaData m) -> !m.options.hasRange()).toArray(MethodMetaData[]::new);
+
+    final TreeSet<Long> bounds = new TreeSet<>();
+    for (final MethodMetaData method : all) {
+      if (method.options.hasRange()) {
+        bounds.add(method.options.range[0]);
+        if (method.options.range[1] < Long.MAX_VALUE) {
+          // the segment following the range
+          bounds.add(method.options.range[1] + 1);
+        }
+      }
+    }
+    this.lowerBounds = bounds.stream().mapToLong(Long::longValue).toArray();
+    this.segments = new MethodMetaData[lowerBounds.length][];
+    for (int i = 0; i < lowerBounds.length; i++) {
+      final List<MethodMetaData> methodsOfSegment = new ArrayList<>();
+      for (final MethodMetaData method : all) {
+        if (!method.options.hasRange() || (method.options.range[0] <= lowerBounds[i] && lowerBounds[i] <= method.options.range[1])) {
+          methodsOfSegment.add(method);
+        }
+      }
+      segments[i] = methodsOfSegment.toArray(new MethodMetaData[methodsOfSegment.size()]);
+    }
+  }
+
+  /**
+   * Gets the methods for the given predicate input. Methods declaring a range are only contained, if the input is an integral number within the range.
+   *
+   * @param input the predicate input
+   * @return the methods in the order they were given. Must not be modified.
+   */
+  MethodMetaData[] get(final Object input) {
+    if (lowerBounds.length == 0) {
+      return all;
+    }
+    if (!MethodGroup.isIntegral(input)) {
+      return unranged;
+    }
+    int segment = Arrays.binarySearch(lowerBounds, ((Number) input).longValue());
+    if (segment < 0) {
+      // not a lower bound itself, so take the segment starting before the input
+      segment = -segment - 2;
+    }
+    return segment < 0 ? unranged : segments[segment];
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Key of a resolved factory method: the requested class, the class of the predicate input and the classes of the factory input.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class ResolutionKey {
+
+  private final Class<?> requestedClass;
+  private final Class<?> inputType;
+  private final Class<?>[] argumentTypes;
+  private final int hashCode;
+
+  ResolutionKey(final Class<?> requestedClass, final Class<?> inputType, final Object... factoryInput) {
+    this.requestedClass = requestedClass;
+    this.inputType = inputType;
+    this.argumentTypes = new Class<?>[factoryInput.length];
+    for (int i = 0; i < factoryInput.length; i++) {
+      argumentTypes[i] = factoryInput[i] == null ? null : factoryInput[i].getClass();
+    }
+    this.hashCode = 31 * (31 * Objects.hashCode(requestedClass) + inputType.hashCode()) + Arrays.hashCode(argumentTypes);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ResolutionKey)) {
+      return false;
+    }
+    final ResolutionKey other = (ResolutionKey) obj;
+    return hashCode == other.hashCode
+        && requestedClass == other.requestedClass
+        && inputType == other.inputType
+        && Arrays.equals(argumentTypes, other.argumentTypes);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
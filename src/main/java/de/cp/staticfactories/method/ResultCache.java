@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the results of {@link StaticFactoryMethod#cacheable() cacheable} factory methods, counting hits and misses.
+ * <p>The cache is bounded, evicting the least recently used results once it is full, see {@link LruCache}. Results of methods declaring an expiry are dropped on the first lookup after they expired.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class ResultCache {
+
+  private final LruCache<ResultKey, Result> results;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maximumSize the maximum number of results kept
+   */
+  ResultCache(final int maximumSize) {
+    this.results = new LruCache<>(maximumSize);
+  }
+
+  /**
+   * Gets the result cached for the given key, counting the lookup as hit or miss.
+   *
+   * @param key the key of the request
+   * @return the result or {@code null} if none is cached or it expired
+   */
+  Result get(final ResultKey key) {
+    final Result ret = results.get(key);
+    if (ret == null) {
+      misses.increment();
+      return null;
+    }
+    if (ret.expiresAt != 0L && System.nanoTime() - ret.expiresAt > 0L) {
+      results.remove(key);
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return ret;
+  }
+
+  /**
+   * Caches the given result.
+   *
+   * @param key the key of the request
+   * @param method the method that created the result
+   * @param value the result
+   */
+  void put(final ResultKey key, final MethodMetaData method, final Object value) {
+    final long expiryMillis = method.options.cacheExpiryMillis;
+    // 0 marks results that never expire, so skip it as a deadline
+    final long expiresAt = expiryMillis > 0L ? (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(expiryMillis)) | 1L : 0L;
+    results.put(key, new Result(method, value, expiresAt));
+  }
+
+  /**
+   * Gets the current counters of this cache.
+   *
+   * @return the statistics
+   */
+  FactoryCacheStatistics getStatistics() {
+    return new FactoryCacheStatistics(hits.sum(), misses.sum(), results.size());
+  }
+
+  /**
+   * A cached result and the method that created it.
+   */
+  static final class Result {
+
+    final MethodMetaData method;
+    final Object value;
+
+    /**
+     * The value of {@link System#nanoTime()} when the result expires, {@code 0} if it never does.
+     */
+    private final long expiresAt;
+
+    Result(final MethodMetaData method, final Object value, final long expiresAt) {
+      this.method = method;
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Key of a cached result: the requested class, the predicate input and the contents of the factory input.
+ * <p>Arrays within the factory input are compared by their contents as well. The factory input must not be changed after the key was created.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class ResultKey {
+
+  private final Class<?> requestedClass;
+  private final Object predicateInput;
+  private final Object[] factoryInput;
+  private final int hashCode;
+
+  ResultKey(final Class<?> requestedClass, final Object predicateInput, final Object[] factoryInput) {
+    this.requestedClass = requestedClass;
+    this.predicateInput = predicateInput;
+    this.factoryInput = factoryInput;
+    this.hashCode = 31 * (31 * Objects.hashCode(requestedClass) + Objects.hashCode(predicateInput)) + Arrays.deepHashCode(factoryInput);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ResultKey)) {
+      return false;
+    }
+    final ResultKey other = (ResultKey) obj;
+    return hashCode == other.hashCode
+        && requestedClass == other.requestedClass
+        && Objects.equals(predicateInput, other.predicateInput)
+        && Arrays.deepEquals(factoryInput, other.factoryInput);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * Invokes a factory method only if there is no object created before for the current scope, see {@link StaticFactoryMethod.Scope}.
+ * <p>{@code null} results are not kept, so the method is invoked again by the next request.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+abstract class ScopedInvoker implements FactoryInvoker {
+
+  /**
+   * Invokes the factory method.
+   */
+  @FunctionalInterface
+  interface Creation {
+
+    Object create() throws Throwable;
+  }
+
+  final FactoryInvoker delegate;
+
+  ScopedInvoker(final FactoryInvoker delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Wraps the given invoker to keep the created objects for the scope given by the options.
+   *
+   * @param invoker the invoker calling the factory method
+   * @param options the options of the method, defining the scope of the created objects
+   * @return the wrapped invoker, or the given one for {@link StaticFactoryMethod.Scope#PROTOTYPE}
+   */
+  static FactoryInvoker of(final FactoryInvoker invoker, final MethodOptions options) {
+    switch (options.scope) {
+      case SINGLETON:
+        return new SingletonInvoker(invoker);
+      case THREAD:
+        return new ThreadScopeInvoker(invoker);
+      case POOLED:
+        return new PooledInvoker(invoker, new ObjectPool(options.poolSize, options.poolIdleMillis));
+      default:
+        return invoker;
+    }
+  }
+
+  /**
+   * Gets the object created before for the current scope.
+   *
+   * @return the object or {@code null} if there is none yet
+   */
+  abstract Object current();
+
+  /**
+   * Creates the object for the current scope and keeps it, unless it is {@code null}.
+   *
+   * @param creation invokes the factory method
+   * @return the object of the current scope, which might have been created concurrently by another thread
+   * @throws Throwable whatever the factory method throws
+   */
+  abstract Object create(Creation creation) throws Throwable;
+
+  /**
+   * Drops the kept objects that would outlive the registry otherwise. Called once the registry of the method is released or replaced.
+   */
+  void clear() {
+    // objects referenced by the invoker only are freed together with the registry
+  }
+
+  @Override
+  public Object invoke(final Object... arguments) throws Throwable {
+    final Object ret = current();
+    return ret != null ? ret : create(() -> delegate.invoke(arguments));
+  }
+
+  @Override
+  public Object invoke0() throws Throwable {
+    final Object ret = current();
+    return ret != null ? ret : create(delegate::invoke0);
+  }
+
+  @Override
+  public Object invoke1(final Object argument0) throws Throwable {
+    final Object ret = current();
+    return ret != null ? ret : create(() -> delegate.invoke1(argument0));
+  }
+
+  @Override
+  public Object invoke2(final Object argument0, final Object argument1) throws Throwable {
+    final Object ret = current();
+    return ret != null ? ret : create(() -> delegate.invoke2(argument0, argument1));
+  }
+
+  @Override
+  public Object invoke3(final Object argument0, final Object argument1, final Object argument2) throws Throwable {
+    final Object ret = current();
+    return ret != null ? ret : create(() -> delegate.invoke3(argument0, argument1, argument2));
+  }
+
+  @Override
+  public Object invoke4(final Object argument0, final Object argument1, final Object argument2, final Object argument3) throws Throwable {
+    final Object ret = current();
+    return ret != null ? ret : create(() -> delegate.invoke4(argument0, argument1, argument2, argument3));
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+/**
+ * Invokes a factory method once and returns the same object afterwards, see {@link StaticFactoryMethod.Scope#SINGLETON}.
+ * <p>The object is initialized lazily by double-checked locking, so requests after the first one neither lock nor allocate.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class SingletonInvoker extends ScopedInvoker {
+
+  private volatile Object instance;
+
+  SingletonInvoker(final FactoryInvoker delegate) {
+    super(delegate);
+  }
+
+  @Override
+  Object current() {
+    return instance;
+  }
+
+  @Override
+  synchronized Object create(final Creation creation) throws Throwable {
+    if (instance == null) {
+      instance = creation.create();
+    }
+    return instance;
+  }
+}
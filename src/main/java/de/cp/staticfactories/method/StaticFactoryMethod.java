@@ -91,4 +91,166 @@ public @interface StaticFactoryMethod {
    * @return the predicate to check whether the annotated method can be used
    */
   Class<? extends Predicate> predicate() default Predicate.class;
+
+  /**
+   * Keys of the predicate inputs the annotated method is used for, as faster alternative to a {@code predicate} that just compares its input to constants.
+   * <p>A predicate input matches, if it is a {@link String} equal to a key, an enum constant whose {@link Enum#name() name} equals a key, or an integral number ({@link Integer}, {@link Long},
+   * {@link Short}, {@link Byte}) whose decimal representation equals a key. Methods are looked up by key in a hash table instead of evaluating predicates. If a {@code predicate} is given as
+   * well, it must accept the input too.</p>
+   * <p>The {@link StaticFactoryProcessor} warns about keys declared by more than one factory method returning the same type.</p>
+   *
+   * @return the keys of the inputs the method is used for
+   */
+  String[] keys() default {};
+
+  /**
+   * The range of predicate inputs the annotated method is used for, given as inclusive minimum and maximum, e.g. {@code range = {0, 1023}}.
+   * <p>A predicate input matches, if it is an integral number ({@link Integer}, {@link Long}, {@link Short}, {@link Byte}) between both bounds. The ranges of all methods are kept in a sorted
+   * array of boundaries, so the methods are found by binary search instead of evaluating predicates. If {@code keys} or a {@code predicate} are given as well, they must accept the input too.</p>
+   * <p>The {@link StaticFactoryProcessor} rejects ranges not consisting of exactly two values or having a minimum greater than the maximum. It warns about ranges overlapping the range of
+   * another factory method returning the same type.</p>
+   *
+   * @return the minimum and maximum of the inputs the method is used for, empty if the method is not restricted to a range
+   */
+  long[] range() default {};
+
+  /**
+   * Prefixes of the predicate inputs the annotated method is used for, as faster alternative to a {@code predicate} checking {@link String#startsWith(String)}.
+   * <p>A predicate input matches, if it is a {@link CharSequence} starting with one of the prefixes. The prefixes of all methods are kept in a single trie, so one pass over the input finds all
+   * matching methods. If {@code keys}, a {@code range}, a {@code pattern} or a {@code predicate} are given as well, they must accept the input too.</p>
+   *
+   * @return the prefixes of the inputs the method is used for
+   */
+  String[] prefix() default {};
+
+  /**
+   * Regular expression the predicate inputs the annotated method is used for must match entirely, see {@link java.util.regex.Matcher#matches()}.
+   * <p>A predicate input matches, if it is a {@link CharSequence} matching the expression. The expressions of all methods are merged into a single one, so the input is matched only once. If
+   * {@code keys}, a {@code range}, a {@code prefix} or a {@code predicate} are given as well, they must accept the input too.</p>
+   * <p>The {@link StaticFactoryProcessor} rejects expressions that cannot be compiled.</p>
+   *
+   * @return the regular expression of the inputs the method is used for, empty if there is none
+   */
+  String pattern() default "";
+
+  /**
+   * Expression the predicate inputs the annotated method is used for must fulfill, as alternative to a {@code predicate} that combines type checks, equality and null checks, e.g.
+   * {@code expression = "it instanceof java.net.URI || it == \"default\""}.
+   * <p>The input is referred to as {@code it}. It can be compared to {@code null}, {@code true}, {@code false}, strings and integral numbers by {@code ==} and {@code !=} and checked by
+   * {@code instanceof}. The checks are combined by {@code !}, {@code &&}, {@code ||} and parentheses. Strings are compared like {@code keys}, integral numbers by their value. Types without
+   * package are taken from {@code java.lang}.</p>
+   * <p>The expressions of all methods returning the same type are compiled into a single chain of method handles, so no predicate is created. If {@code keys}, a {@code range}, a
+   * {@code prefix}, a {@code pattern} or a {@code predicate} are given as well, they must accept the input too. The {@link StaticFactoryProcessor} rejects invalid expressions and unknown
+   * types.</p>
+   *
+   * @return the expression the inputs the method is used for must fulfill, empty if there is none
+   */
+  String expression() default "";
+
+  /**
+   * Declares on what the result of the {@code predicate} depends on. The more stable a predicate is, the more results can be cached by {@link StaticFactoryUtil}.
+   * <p>Declaring a predicate more stable than it is leads to wrong factory methods being used, so be careful.</p>
+   *
+   * @return the stability of the predicate
+   */
+  Stability stability() default Stability.NONE;
+
+  /**
+   * Declares that the annotated method is a pure function of its factory input, so its results can be cached by {@link StaticFactoryUtil}.
+   * <p>A result is cached by the requested class, the predicate input and the contents of the factory input. Equal requests get the cached object without evaluating any predicate or invoking
+   * the method. This requires all predicates that are evaluated for a request to be at least {@link Stability#VALUE value stable}; otherwise the result is not cached. Results of a method with
+   * {@link Scope#POOLED pooled scope} are never cached. See {@link StaticFactoryUtil#RESULT_CACHE_SIZE_PROPERTY} for the size of the cache.</p>
+   *
+   * @return whether the results of the method can be cached
+   */
+  boolean cacheable() default false;
+
+  /**
+   * The time in milliseconds a result of a {@link #cacheable()} method stays cached. {@code 0} to keep it until it is evicted as the cache is full.
+   *
+   * @return the time to keep a cached result
+   */
+  long cacheExpiryMillis() default 0L;
+
+  /**
+   * Declares how often the annotated method is invoked to create objects, see {@link Scope}.
+   * <p>Objects created for a scope other than {@link Scope#PROTOTYPE} are shared, so they should be immutable or thread-safe - at least within their scope.</p>
+   *
+   * @return the scope of the created objects
+   */
+  Scope scope() default Scope.PROTOTYPE;
+
+  /**
+   * The maximum number of idle objects kept by the pool of a method with {@link Scope#POOLED pooled scope}. Objects released while the pool is full are dropped.
+   *
+   * @return the maximum size of the pool
+   */
+  int poolSize() default 8;
+
+  /**
+   * The time in milliseconds an object may stay idle in the pool of a method with {@link Scope#POOLED pooled scope}, before it is evicted. {@code 0} to keep idle objects forever.
+   *
+   * @return the maximum idle time
+   */
+  long poolIdleMillis() default 60000L;
+
+  /**
+   * The stability of a predicate, that is on what its result depends on.
+   */
+  enum Stability {
+
+    /**
+     * The result of the predicate might change at any time, e.g. as it depends on configuration. The predicate is evaluated on every call.
+     */
+    NONE,
+
+    /**
+     * The result of the predicate depends on the identity of its input only. It is the same whenever the same object is tested, e.g. as the object is immutable but expensive to compare.
+     * <p>The results of such predicates are cached per input object, which is referenced weakly (see {@link StaticFactoryUtil#PREDICATE_CACHE_SIZE_PROPERTY}).</p>
+     */
+    IDENTITY,
+
+    /**
+     * The result of the predicate depends on the value of its input only. It is the same for all inputs equal to each other.
+     * <p>The results of such predicates are cached by the input (see {@link StaticFactoryUtil#PREDICATE_CACHE_SIZE_PROPERTY}). Results of {@link StaticFactoryMethod#cacheable() cacheable}
+     * methods can be cached by the predicate input for such predicates.</p>
+     */
+    VALUE,
+
+    /**
+     * The result of the predicate depends on the class of its input only. It is the same for all objects of the same class.
+     * <p>The method resolved for such predicates can be cached by the input's class (see {@link StaticFactoryUtil#RESOLUTION_CACHE_SIZE_PROPERTY}). A type stable predicate is value stable
+     * as well.</p>
+     */
+    TYPE
+  }
+
+  /**
+   * The scope of the objects created by a factory method.
+   * <p>Objects are kept for the factory methods known at a time. They are dropped on {@link StaticFactoryUtil#reload()}. A factory method returning {@code null} is invoked again next time.</p>
+   */
+  enum Scope {
+
+    /**
+     * The method is invoked on every request, so each request gets a new object.
+     */
+    PROTOTYPE,
+
+    /**
+     * The method is invoked once. All later requests get the same object, regardless of the factory input given with them.
+     */
+    SINGLETON,
+
+    /**
+     * The method is invoked once per thread. All later requests of the same thread get the same object, regardless of the factory input given with them.
+     */
+    THREAD,
+
+    /**
+     * Objects are taken from a bounded pool of the method, which is filled by returning them. Use {@link StaticFactoryUtil#borrow(Class, Object, Object...)} to get an object and close the
+     * returned lease to give it back. The method is only invoked if the pool is empty, so the factory input of a request is ignored when a pooled object is reused.
+     * <p>Objects requested by {@link StaticFactoryUtil#getObject(Class, Object, Object...)} are taken from the pool too, but never returned to it.</p>
+     */
+    POOLED
+  }
 }
@@ -23,10 +23,19 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
@@ -42,6 +51,9 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.tools.Diagnostic.Kind;
@@ -50,6 +62,9 @@ import javax.tools.StandardLocation;
 
 /**
  * Simple annotation processor to create the services file for methods declaring to be static factory methods.
+ * <p>Besides the services file an index is written, which describes every single annotation (see {@link FactoryIndex}). This allows the runtime to build its registry without scanning the
+ * enclosing classes by reflection.<br>
+ * For every annotated method a {@link FactoryInvoker} is generated, which calls the method directly (see {@link InvokerSourceWriter}).</p>
  * <p>Compilation errors are created for following cases:
  * <ul>
  * <li>annotated method is defined in an abstract class</li>
@@ -61,9 +76,10 @@ import javax.tools.StandardLocation;
  * <li>given predicate is an abstract class</li>
  * <li>given predicate is of type interface</li>
  * <li>given predicate has no public non-argument constructor</li>
- * <li>the services cannot be written to META-INF/services for any reason</li>
+ * <li>the services or the index cannot be written to META-INF for any reason</li>
  * </ul>
- * A warning is created if return type declared in annotation is not related to the return type of the annotated method.
+ * A warning is created if return type declared in annotation is not related to the return type of the annotated method, or if a key is declared by more than one factory method returning the
+ * same type.
  * </p>
  *
  * @author cperv
@@ -73,8 +89,29 @@ import javax.tools.StandardLocation;
 @SupportedAnnotationTypes(value = {"de.cp.staticfactories.method.StaticFactoryMethod", "de.cp.staticfactories.method.StaticFactoryMethods"})
 public class StaticFactoryProcessor extends AbstractProcessor {
 
+  private static final String OBJECT_DESCRIPTOR = "Ljava/lang/Object;";
+
   private final Collection<String> enclosingClasses = new HashSet<>();
 
+  private final Collection<Properties> indexEntries = new ArrayList<>();
+
+  /**
+   * Classes with at least one annotated method that cannot be described in the index. The runtime falls back to reflection for these.
+   */
+  private final Collection<String> unindexedClasses = new HashSet<>();
+
+  private final Collection<String> invokerNames = new HashSet<>();
+
+  /**
+   * The methods declaring a key, by return type and key. Used to find duplicate keys.
+   */
+  private final Map<String, Map<String, String>> keyOwners = new HashMap<>();
+
+  /**
+   * The ranges declared by the methods, by return type and method. Used to find overlapping ranges.
+   */
+  private final Map<String, Map<String, long[]>> rangeOwners = new HashMap<>();
+
   @Override
   public final boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
     if (roundEnv.errorRaised()) {
@@ -82,7 +119,13 @@ public class StaticFactoryProcessor extends AbstractProcessor {
     }
     if (roundEnv.processingOver()) {
       writeServices();
+      writeIndex();
       enclosingClasses.clear();
+      indexEntries.clear();
+      unindexedClasses.clear();
+      invokerNames.clear();
+      keyOwners.clear();
+      rangeOwners.clear();
       return true;
     } else {
       return handleProcess(roundEnv);
@@ -112,6 +155,7 @@ public class StaticFactoryProcessor extends AbstractProcessor {
       // Note: do not check whether the class is already in the list to avoid adding, as then the compiler checks will not be performed
       if (checkMethodSignature(method) && checkEnclosingClass(enclosingClazz, method) && checkAnnotationValues(method)) {
         enclosingClasses.add(processingEnv.getElementUtils().getBinaryName(enclosingClazz).toString());
+        addIndexEntries(method, enclosingClazz);
         ret = true;
       }
     }
@@ -218,10 +262,151 @@ public class StaticFactoryProcessor extends AbstractProcessor {
         // a predicate is defined, let's perform some checks here
         ret &= checkPredicate(method, valueAsElement);
       }
+
+      if (FactoryIndex.KEYS.equals(keyName)) {
+        checkKeys(method, getReturnType(annotationMirror, methodsReturnType), getStrings(entry.getValue()));
+      }
+
+      if (FactoryIndex.RANGE.equals(keyName)) {
+        ret &= checkRange(method, getReturnType(annotationMirror, methodsReturnType), getStrings(entry.getValue()));
+      }
+
+      if (FactoryIndex.PATTERN.equals(keyName)) {
+        ret &= checkPattern(method, entry.getValue().getValue().toString());
+      }
+
+      if (FactoryIndex.EXPRESSION.equals(keyName)) {
+        ret &= checkExpression(method, entry.getValue().getValue().toString());
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Creates a warning for every key that was declared before by another factory method returning the same type.
+   *
+   * @param method the annotated method
+   * @param returnType the type the method declares to return
+   * @param keys the keys declared by the annotation
+   */
+  private void checkKeys(final ExecutableElement method, final TypeMirror returnType, final List<String> keys) {
+    final String returnTypeName = processingEnv.getTypeUtils().erasure(returnType).toString();
+    final String owner = ((TypeElement) method.getEnclosingElement()).getQualifiedName() + "." + method.getSimpleName();
+    final Map<String, String> owners = keyOwners.computeIfAbsent(returnTypeName, (String type) -> new HashMap<>());
+    for (final String key : keys) {
+      final String previousOwner = owners.putIfAbsent(key, owner);
+      if (previousOwner != null && !previousOwner.equals(owner)) {
+        processingEnv.getMessager().printMessage(Kind.MANDATORY_WARNING, String.format("Key '%s' is declared by the factory methods %s and %s, which both return %s. The first one found at "
+            + "runtime is preferred.", key, previousOwner, owner, returnTypeName), method);
+      }
+    }
+  }
+
+  /**
+   * Checks the range consists of minimum and maximum and creates a warning if it overlaps a range declared before by another factory method returning the same type.
+   *
+   * @param method the annotated method
+   * @param returnType the type the method declares to return
+   * @param bounds the bounds of the range declared by the annotation
+   * @return {@code true} in case the range is valid
+   */
+  private boolean checkRange(final ExecutableElement method, final TypeMirror returnType, final List<String> bounds) {
+    final Messager messager = processingEnv.getMessager();
+    if (bounds.isEmpty()) {
+      return true;
+    }
+    if (bounds.size() != 2) {
+      messager.printMessage(Kind.ERROR, String.format("Range %s of method '%s' must consist of the minimum and the maximum.", bounds, method.getSimpleName().toString()), method);
+      return false;
+    }
+    final long[] range = {Long.parseLong(bounds.get(0)), Long.parseLong(bounds.get(1))};
+    if (range[0] > range[1]) {
+      messager.printMessage(Kind.ERROR, String.format("Range %s of method '%s' has a minimum greater than its maximum.", bounds, method.getSimpleName().toString()), method);
+      return false;
+    }
+
+    final String returnTypeName = processingEnv.getTypeUtils().erasure(returnType).toString();
+    final String owner = ((TypeElement) method.getEnclosingElement()).getQualifiedName() + "." + method.getSimpleName();
+    final Map<String, long[]> owners = rangeOwners.computeIfAbsent(returnTypeName, (String type) -> new HashMap<>());
+    for (final Entry<String, long[]> previous : owners.entrySet()) {
+      final long[] previousRange = previous.getValue();
+      if (!previous.getKey().equals(owner) && range[0] <= previousRange[1] && previousRange[0] <= range[1]) {
+        messager.printMessage(Kind.MANDATORY_WARNING, String.format("Range [%d, %d] of the factory method %s overlaps the range [%d, %d] of %s, which both return %s. The first one found "
+            + "at runtime is preferred for inputs in both ranges.", range[0], range[1], owner, previousRange[0], previousRange[1], previous.getKey(), returnTypeName), method);
+      }
+    }
+    owners.putIfAbsent(owner, range);
+    return true;
+  }
+
+  /**
+   * Checks the given regular expression can be compiled.
+   *
+   * @param method the annotated method
+   * @param pattern the regular expression declared by the annotation
+   * @return {@code true} in case the expression is valid
+   */
+  private boolean checkPattern(final ExecutableElement method, final String pattern) {
+    try {
+      Pattern.compile(pattern);
+      return true;
+    } catch (final PatternSyntaxException ex) {
+      processingEnv.getMessager().printMessage(Kind.ERROR, String.format("Pattern of method '%s' is not a valid regular expression: %s", method.getSimpleName().toString(),
+          ex.getMessage()), method);
+      return false;
+    }
+  }
+
+  /**
+   * Checks the given matcher expression follows the grammar of {@link MatcherExpression} and all types it checks by {@code instanceof} exist.
+   *
+   * @param method the annotated method
+   * @param expression the expression declared by the annotation
+   * @return {@code true} in case the expression is valid
+   */
+  private boolean checkExpression(final ExecutableElement method, final String expression) {
+    final Messager messager = processingEnv.getMessager();
+    if (expression.isEmpty()) {
+      return true;
+    }
+    final Collection<String> typeNames = new ArrayList<>();
+    try {
+      MatcherExpression.parse(expression).collectTypeNames(typeNames);
+    } catch (final IllegalArgumentException ex) {
+      messager.printMessage(Kind.ERROR, String.format("Expression of method '%s' is invalid: %s", method.getSimpleName().toString(), ex.getMessage()), method);
+      return false;
+    }
+    boolean ret = true;
+    for (final String typeName : typeNames) {
+      if (processingEnv.getElementUtils().getTypeElement(typeName) == null) {
+        messager.printMessage(Kind.ERROR, String.format("Expression of method '%s' refers to the unknown type %s.", method.getSimpleName().toString(), typeName), method);
+        ret = false;
+      }
     }
     return ret;
   }
 
+  /**
+   * Gets the type the annotation declares the method to return, that is the value of {@code returns} or the method's return type if not given.
+   */
+  private static TypeMirror getReturnType(final AnnotationMirror annotationMirror, final TypeMirror methodsReturnType) {
+    for (final Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet()) {
+      if ("returns".equals(entry.getKey().getSimpleName().toString()) && entry.getValue().getValue() instanceof TypeMirror) {
+        return (TypeMirror) entry.getValue().getValue();
+      }
+    }
+    return methodsReturnType;
+  }
+
+  /**
+   * Gets the strings of an annotation value of type {@code String[]}.
+   */
+  private static List<String> getStrings(final AnnotationValue value) {
+    return ((List<?>) value.getValue()).stream()
+        .map((Object element) -> String.valueOf(((AnnotationValue) element).getValue()))
+        .collect(Collectors.toList());
+  }
+
   /**
    * Performs the checks of the predicate given in the annotation.
    *
@@ -295,6 +480,166 @@ public class StaticFactoryProcessor extends AbstractProcessor {
     return singleMirrors;
   }
 
+  /**
+   * Adds the index entries for all annotations on the given method. If the method cannot be described, its enclosing class is marked to be resolved by reflection at runtime.
+   *
+   * @param method the annotated method
+   * @param enclosingClazz the class enclosing the method
+   */
+  private void addIndexEntries(final ExecutableElement method, final TypeElement enclosingClazz) {
+    final String className = processingEnv.getElementUtils().getBinaryName(enclosingClazz).toString();
+    final String descriptor = getMethodDescriptor(method);
+    if (descriptor == null) {
+      unindexedClasses.add(className);
+      return;
+    }
+
+    final String invoker = writeInvoker(method, enclosingClazz);
+
+    for (final AnnotationMirror annotationMirror : getAnnotationMirrors(method)) {
+      final Properties entry = new Properties();
+      entry.setProperty(FactoryIndex.CLASS, className);
+      entry.setProperty(FactoryIndex.METHOD, method.getSimpleName().toString());
+      entry.setProperty(FactoryIndex.DESCRIPTOR, descriptor);
+      if (invoker != null) {
+        entry.setProperty(FactoryIndex.INVOKER, invoker);
+      }
+      entry.setProperty(FactoryIndex.RETURNS, OBJECT_DESCRIPTOR);
+
+      for (final Entry<? extends ExecutableElement, ? extends AnnotationValue> value : annotationMirror.getElementValues().entrySet()) {
+        final String keyName = value.getKey().getSimpleName().toString();
+        final Object valueOfValue = value.getValue().getValue();
+        final String valueDescriptor = valueOfValue instanceof TypeMirror ? getDescriptor((TypeMirror) valueOfValue) : null;
+
+        if ("returns".equals(keyName) || "predicate".equals(keyName)) {
+          if (valueDescriptor == null) {
+            unindexedClasses.add(className);
+            return;
+          }
+          entry.setProperty(keyName, valueDescriptor);
+        }
+
+        if (FactoryIndex.STABILITY.equals(keyName) || FactoryIndex.SCOPE.equals(keyName)) {
+          entry.setProperty(keyName, ((VariableElement) valueOfValue).getSimpleName().toString());
+        }
+
+        if (FactoryIndex.KEYS.equals(keyName) || FactoryIndex.RANGE.equals(keyName) || FactoryIndex.PREFIX.equals(keyName)) {
+          FactoryIndex.setValues(entry, keyName, getStrings(value.getValue()));
+        }
+
+        if (FactoryIndex.POOL_SIZE.equals(keyName) || FactoryIndex.POOL_IDLE_MILLIS.equals(keyName) || FactoryIndex.CACHEABLE.equals(keyName)
+            || FactoryIndex.CACHE_EXPIRY_MILLIS.equals(keyName) || FactoryIndex.PATTERN.equals(keyName)
+            || FactoryIndex.EXPRESSION.equals(keyName)) {
+          entry.setProperty(keyName, String.valueOf(valueOfValue));
+        }
+
+        if ("predicate".equals(keyName)) {
+          final TypeMirror predicateInput = findPredicateInput((TypeMirror) valueOfValue);
+          final String inputDescriptor = predicateInput == null ? OBJECT_DESCRIPTOR : getDescriptor(predicateInput);
+          entry.setProperty(FactoryIndex.PREDICATE_INPUT, inputDescriptor == null ? OBJECT_DESCRIPTOR : inputDescriptor);
+        }
+      }
+      indexEntries.add(entry);
+    }
+  }
+
+  /**
+   * Generates the invoker calling the given method without reflection.
+   *
+   * @param method the annotated method
+   * @param enclosingClazz the class enclosing the method
+   * @return the binary name of the invoker or {@code null} if it could not be generated. The runtime uses reflection in that case.
+   */
+  private String writeInvoker(final ExecutableElement method, final TypeElement enclosingClazz) {
+    try {
+      return InvokerSourceWriter.write(processingEnv, method, enclosingClazz, invokerNames);
+    } catch (final IOException ex) {
+      processingEnv.getMessager().printMessage(Kind.WARNING, String.format("Cannot generate invoker for method '%s', reflection is used instead: %s", method.getSimpleName().toString(),
+          ex.getMessage()), method);
+      return null;
+    }
+  }
+
+  /**
+   * Searches the type hierarchy of the given predicate for {@link Predicate} and returns its type argument.
+   *
+   * @param predicate the type of the predicate
+   * @return the type argument of {@link Predicate} or {@code null} in case it is not found or used as raw type
+   */
+  private TypeMirror findPredicateInput(final TypeMirror predicate) {
+    for (final TypeMirror superType : processingEnv.getTypeUtils().directSupertypes(predicate)) {
+      if (TypeKind.DECLARED == superType.getKind()) {
+        final DeclaredType declaredType = (DeclaredType) superType;
+        if (((TypeElement) declaredType.asElement()).getQualifiedName().contentEquals(Predicate.class.getName())) {
+          return declaredType.getTypeArguments().isEmpty() ? null : declaredType.getTypeArguments().get(0);
+        }
+        final TypeMirror found = findPredicateInput(superType);
+        if (found != null) {
+          return found;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the JVM method descriptor of the given method.
+   *
+   * @param method the method to get the descriptor for
+   * @return the descriptor or {@code null} in case any of the types cannot be described
+   */
+  private String getMethodDescriptor(final ExecutableElement method) {
+    final StringBuilder builder = new StringBuilder("(");
+    for (final VariableElement parameter : method.getParameters()) {
+      final String descriptor = getDescriptor(parameter.asType());
+      if (descriptor == null) {
+        return null;
+      }
+      builder.append(descriptor);
+    }
+    final String returnDescriptor = getDescriptor(method.getReturnType());
+    return returnDescriptor == null ? null : builder.append(')').append(returnDescriptor).toString();
+  }
+
+  /**
+   * Gets the JVM field descriptor of the erasure of the given type.
+   *
+   * @param type the type to get the descriptor for
+   * @return the descriptor or {@code null} in case the type cannot be described
+   */
+  private String getDescriptor(final TypeMirror type) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return "Z";
+      case BYTE:
+        return "B";
+      case CHAR:
+        return "C";
+      case SHORT:
+        return "S";
+      case INT:
+        return "I";
+      case LONG:
+        return "J";
+      case FLOAT:
+        return "F";
+      case DOUBLE:
+        return "D";
+      case VOID:
+        return "V";
+      case ARRAY:
+        final String componentDescriptor = getDescriptor(((ArrayType) type).getComponentType());
+        return componentDescriptor == null ? null : "[" + componentDescriptor;
+      case DECLARED:
+        final Name binaryName = processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement());
+        return "L" + binaryName.toString().replace('.', '/') + ";";
+      case TYPEVAR:
+        return getDescriptor(processingEnv.getTypeUtils().erasure(type));
+      default:
+        return null;
+    }
+  }
+
   /**
    * Nullsafe check to evaluate whether the enclosing element of the passed element is of the given type.
    *
@@ -324,4 +669,23 @@ public class StaticFactoryProcessor extends AbstractProcessor {
       processingEnv.getMessager().printMessage(Kind.ERROR, "Cannot write service file with static factory enclosing classes.");
     }
   }
+
+  /**
+   * Writes the index of all annotations to the META-INF directory. Entries of classes that cannot be fully described are left out.
+   */
+  private void writeIndex() {
+    try {
+      final Filer filer = processingEnv.getFiler();
+      final FileObject out = filer.createResource(StandardLocation.CLASS_OUTPUT, "", StaticFactoryUtil.INDEX_FILE, new Element[0]);
+
+      try (final OutputStream outputStream = out.openOutputStream()) {
+        FactoryIndex.write(indexEntries.stream()
+            .filter((Properties entry) -> !unindexedClasses.contains(entry.getProperty(FactoryIndex.CLASS)))
+            .collect(Collectors.toList()), outputStream);
+      }
+
+    } catch (final IOException ex) {
+      processingEnv.getMessager().printMessage(Kind.ERROR, "Cannot write index file with static factory methods.");
+    }
+  }
 }
@@ -18,21 +18,7 @@
  */
 package de.cp.staticfactories.method;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.net.URL;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Optional;
-import java.util.Properties;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -40,7 +26,7 @@ import org.apache.logging.log4j.Logger;
  * Utilities to load and invoke known (registered) static factory methods.
  * <p>
  * A static factory method is considered as being known, when its enclosing class has an entry in the file
- * {@code <build-output-directory>\classes\META-INF\services\de.cp.staticfactories.method.StaticFactoryMethod}.<br>
+ * {@code <build-output-directory>\classes\META-INF\services\de.cp.staticfactories.method.StaticFactoryMethod} of any jar visible to the context class loader of the calling thread.<br>
  * To register a factory method, add the annotation {@link StaticFactoryMethod} on it, fill the required values and make sure there are no compilation errors.<br> After a build the enclosing class of
  * the factory method will appear in the mentioned file.
  * </p>
@@ -55,11 +41,54 @@ public final class StaticFactoryUtil {
    */
   public static final String SERVICES_FILE = "META-INF/services/de.cp.staticfactories.method.StaticFactoryMethod";
 
+  /**
+   * The META-INF filename of the index describing every single annotated factory method.
+   */
+  public static final String INDEX_FILE = "META-INF/de.cp.staticfactories.method.StaticFactoryMethod.index";
+
+  /**
+   * Name of the system property defining how many resolved factory methods are cached per class loader. The cache is disabled by default.
+   * <p>A resolved method is cached by the requested class, the class of the predicate input and the classes of the factory input, but only if all predicates that had to be evaluated are declared
+   * to be {@link StaticFactoryMethod.Stability#TYPE type stable}. Subsequent calls with the same classes invoke the cached method without evaluating any predicate.</p>
+   */
+  public static final String RESOLUTION_CACHE_SIZE_PROPERTY = "de.cp.staticfactories.resolutionCacheSize";
+
+  /**
+   * Name of the system property defining how many results of {@link StaticFactoryMethod#cacheable() cacheable} factory methods are cached per class loader. Defaults to
+   * {@value #DEFAULT_RESULT_CACHE_SIZE}; {@code 0} disables the cache.
+   * <p>The hits and misses of the cache are counted, see {@link #getResultCacheStatistics()}.</p>
+   */
+  public static final String RESULT_CACHE_SIZE_PROPERTY = "de.cp.staticfactories.resultCacheSize";
+
+  static final int DEFAULT_RESULT_CACHE_SIZE = 1024;
+
+  /**
+   * Name of the system property defining how many requests no factory method was found for are remembered per class loader. Defaults to {@value #DEFAULT_NEGATIVE_CACHE_SIZE}; {@code 0} disables
+   * the cache.
+   * <p>A request is remembered by the requested class and the predicate input, but only if all predicates that had to be evaluated are at least
+   * {@link StaticFactoryMethod.Stability#VALUE value stable}. Equal requests then return {@code null} without evaluating any predicate.</p>
+   */
+  public static final String NEGATIVE_CACHE_SIZE_PROPERTY = "de.cp.staticfactories.negativeCacheSize";
+
+  static final int DEFAULT_NEGATIVE_CACHE_SIZE = 1024;
+
+  /**
+   * Name of the system property defining how many results each stable predicate caches. Defaults to {@value #DEFAULT_PREDICATE_CACHE_SIZE}; {@code 0} disables the caches.
+   * <p>Results are cached by the class of the input for {@link StaticFactoryMethod.Stability#TYPE type stable} predicates, by the input itself for
+   * {@link StaticFactoryMethod.Stability#VALUE value stable} ones and by the identity of the weakly referenced input for {@link StaticFactoryMethod.Stability#IDENTITY identity stable} ones.</p>
+   */
+  public static final String PREDICATE_CACHE_SIZE_PROPERTY = "de.cp.staticfactories.predicateCacheSize";
+
+  static final int DEFAULT_PREDICATE_CACHE_SIZE = 256;
+
   private static final Logger LOG = LogManager.getLogger(StaticFactoryUtil.class);
 
-  private static final Collection<MethodMetaData> FACTORY_METHODS = new HashSet<>();
+  private static final Object[] NO_ARGUMENTS = new Object[0];
 
-  private static final Predicate<Method> PREDICATE_METHOD_SELECTOR = new IsTestMethodPredicate().and(new IsNotSyntheticTestMethod());
+  /**
+   * The snapshots of the known factory methods, one per class loader. Loaded lazily on first usage and replaced as a whole by {@link #reload()}.
+   */
+  private static final FactoryRegistries REGISTRIES = new FactoryRegistries();
 
   private StaticFactoryUtil() {
   }
@@ -85,177 +114,378 @@ public final class StaticFactoryUtil {
    * @param <T> the type of the class of the object to obtain
    * @param <I> the type of the input of the predicate
    * @param requestedClass the class type that should be returned. Can be ommitted.
-   * @param predicateInput the input for the predicate inside the @StaticFactoryMethod annotation. Can be omitted.
-   * @param factoryInput the input to give to a found factory method
+   * @param predicateInput the input for the predicate inside the @StaticFactoryMethod annotation. Can be omitted. A {@code null} input is only offered to methods accepting any object, e.g. by an expression.
+   * @param factoryInput the input to give to a found factory method. A {@code null} array is taken as a single {@code null} argument
    * @return the object created by the found factory method. Might be {@code null} in case no factory was found or the factory returned null by itself
    */
   public static <T, I> T getObject(final Class<T> requestedClass, final I predicateInput, final Object... factoryInput) {
-    T ret = null;
-
-    // load the factories - we might want to cache them?
-    reload();
-
-    Stream<MethodMetaData> methods = FACTORY_METHODS.stream().parallel();
-
-    if (requestedClass != null) {
-      // a specific class is requested
-      // so either the annotation must declare it or the method's return type must be of it
-      methods = methods.filter((MethodMetaData m) -> m.annotatedReturnType == requestedClass || m.methodReturnType == requestedClass);
+    if (factoryInput == null) {
+      // a single null argument, not an empty argument list
+      return resolve(requestedClass, predicateInput, 1, null, null, null, null, null, false);
     }
+    return resolve(requestedClass, predicateInput, factoryInput.length, null, null, null, null, factoryInput, false);
+  }
 
-    // test whether we have a predicate defined and if so, check it is can be used and if so whether it delivers true
-    methods = methods.filter((MethodMetaData m) -> m.checkPredicate != null && canUsePredicate(m.checkPredicate, predicateInput) && m.checkPredicate.test(predicateInput));
+  /**
+   * Invokes a static factory method taking no arguments. Same as {@link #getObject(Class, Object, Object...)}, but without allocating an argument array.
+   *
+   * @param <T> the type of the class of the object to obtain
+   * @param <I> the type of the input of the predicate
+   * @param requestedClass the class type that should be returned. Can be ommitted.
+   * @param predicateInput the input for the predicate inside the @StaticFactoryMethod annotation
+   * @return the object created by the found factory method. Might be {@code null} in case no factory was found or the factory returned null by itself
+   */
+  public static <T, I> T getObject(final Class<T> requestedClass, final I predicateInput) {
+    return resolve(requestedClass, predicateInput, 0, null, null, null, null, null, false);
+  }
 
-    final Collection<MethodMetaData> allLeft = methods.collect(Collectors.toSet());
-    if (allLeft.size() != 1) {
-      LOG.info("Fitting methods found: " + allLeft.size() + ", expected is 1.");
+  /**
+   * Invokes a static factory method taking a single argument. Same as {@link #getObject(Class, Object, Object...)}, but without allocating an argument array.
+   * <p>An array of objects is taken as the complete factory input, just as it was when calling {@link #getObject(Class, Object, Object...)} with it.</p>
+   *
+   * @param <T> the type of the class of the object to obtain
+   * @param <I> the type of the input of the predicate
+   * @param requestedClass the class type that should be returned. Can be ommitted.
+   * @param predicateInput the input for the predicate inside the @StaticFactoryMethod annotation
+   * @param argument0 the argument to give to a found factory method
+   * @return the object created by the found factory method. Might be {@code null} in case no factory was found or the factory returned null by itself
+   */
+  public static <T, I> T getObject(final Class<T> requestedClass, final I predicateInput, final Object argument0) {
+    if (argument0 instanceof Object[]) {
+      return getObject(requestedClass, predicateInput, (Object[]) argument0);
     }
+    return resolve(requestedClass, predicateInput, 1, argument0, null, null, null, null, false);
+  }
 
-    // if we have multiple left, just iterate on them, until one creates our object
-    for (final Iterator<MethodMetaData> iterator = allLeft.iterator(); iterator.hasNext() && ret == null;) {
-      final MethodMetaData next = iterator.next();
-      ret = createObject(next, factoryInput);
-    }
+  /**
+   * Invokes a static factory method taking two arguments. Same as {@link #getObject(Class, Object, Object...)}, but without allocating an argument array.
+   *
+   * @param <T> the type of the class of the object to obtain
+   * @param <I> the type of the input of the predicate
+   * @param requestedClass the class type that should be returned. Can be ommitted.
+   * @param predicateInput the input for the predicate inside the @StaticFactoryMethod annotation
+   * @param argument0 the first argument to give to a found factory method
+   * @param argument1 the second argument to give to a found factory method
+   * @return the object created by the found factory method. Might be {@code null} in case no factory was found or the factory returned null by itself
+   */
+  public static <T, I> T getObject(final Class<T> requestedClass, final I predicateInput, final Object argument0, final Object argument1) {
+    return resolve(requestedClass, predicateInput, 2, argument0, argument1, null, null, null, false);
+  }
 
-    return ret;
+  /**
+   * Invokes a static factory method taking three arguments. Same as {@link #getObject(Class, Object, Object...)}, but without allocating an argument array.
+   *
+   * @param <T> the type of the class of the object to obtain
+   * @param <I> the type of the input of the predicate
+   * @param requestedClass the class type that should be returned. Can be ommitted.
+   * @param predicateInput the input for the predicate inside the @StaticFactoryMethod annotation
+   * @param argument0 the first argument to give to a found factory method
+   * @param argument1 the second argument to give to a found factory method
+   * @param argument2 the third argument to give to a found factory method
+   * @return the object created by the found factory method. Might be {@code null} in case no factory was found or the factory returned null by itself
+   */
+  public static <T, I> T getObject(final Class<T> requestedClass, final I predicateInput, final Object argument0, final Object argument1, final Object argument2) {
+    return resolve(requestedClass, predicateInput, 3, argument0, argument1, argument2, null, null, false);
   }
 
   /**
-   * Checks whether the given predicate's apply method can work with the given predicate input.
+   * Invokes a static factory method taking four arguments. Same as {@link #getObject(Class, Object, Object...)}, but without allocating an argument array.
    *
-   * @param <I> the type of the data to be passed to the apply method
-   * @param predicate the predicate to check
-   * @param predicateInput the input data to be passed to the predicate
-   * @return {@code true} if the apply method's input parameter is class equal to the given input class
+   * @param <T> the type of the class of the object to obtain
+   * @param <I> the type of the input of the predicate
+   * @param requestedClass the class type that should be returned. Can be ommitted.
+   * @param predicateInput the input for the predicate inside the @StaticFactoryMethod annotation
+   * @param argument0 the first argument to give to a found factory method
+   * @param argument1 the second argument to give to a found factory method
+   * @param argument2 the third argument to give to a found factory method
+   * @param argument3 the fourth argument to give to a found factory method
+   * @return the object created by the found factory method. Might be {@code null} in case no factory was found or the factory returned null by itself
    */
-  private static <I> boolean canUsePredicate(final Predicate<?> predicate, final I predicateInput) {
-    /*
-     * due to inheritance we will have at least two "test" methods - one with Object as parameter type and one with the specified type
-     * the method taking the object is "synthetic", so do not take care for it
-     * and if the parameter of the test method is not a superclass of superinterface of the desired input, skip it too
-     */
-    final Optional<Method> findFirst = Arrays.stream(predicate.getClass().getMethods())
-            .filter(PREDICATE_METHOD_SELECTOR.and((Method m) -> m.getParameterTypes()[0].isAssignableFrom(predicateInput.getClass())))
-            .findFirst();
-
-    return findFirst.isPresent();
+  public static <T, I> T getObject(final Class<T> requestedClass, final I predicateInput, final Object argument0, final Object argument1, final Object argument2,
+      final Object argument3) {
+    return resolve(requestedClass, predicateInput, 4, argument0, argument1, argument2, argument3, null, false);
   }
 
-  @SuppressWarnings("unchecked")
-  private static <T> T createObject(final MethodMetaData data, final Object... factoryInput) {
-    T ret = null;
-    if (data != null) {
-      try {
-        // we do it the easy, but nasty way (control flow by exception)
-        ret = (T) data.method.invoke(null, factoryInput);
-      } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
-        if (LOG.isErrorEnabled()) {
-          LOG.error(String.format("Object could not be created using the method: %s. With the parameters: %s", data.method.toString(), Arrays.toString(factoryInput)), ex);
-        }
-      }
+  /**
+   * Invokes a static factory method like {@link #getObject(Class, Object, Object...)} and leases the created object to the caller.
+   * <p>Objects of factory methods declaring the {@link StaticFactoryMethod.Scope#POOLED pooled scope} are taken from the method's pool and returned to it when the lease is closed, see
+   * {@link #release(FactoryLease)}. Objects of all other scopes are just handed out; closing their lease does nothing.</p>
+   * <pre>
+   * try (FactoryLease&lt;Parser&gt; lease = StaticFactoryUtil.borrow(Parser.class, format)) {
+   *   lease.get().parse(input);
+   * }
+   * </pre>
+   *
+   * @param <T> the type of the class of the object to obtain
+   * @param <I> the type of the input of the predicate
+   * @param requestedClass the class type that should be returned. Can be ommitted.
+   * @param predicateInput the input for the predicate inside the @StaticFactoryMethod annotation
+   * @param factoryInput the input to give to a found factory method. Ignored if a pooled object is reused.
+   * @return the lease of the created object. {@code null} in case no factory was found or the factory returned null by itself
+   */
+  public static <T, I> FactoryLease<T> borrow(final Class<T> requestedClass, final I predicateInput, final Object... factoryInput) {
+    if (factoryInput == null) {
+      // a single null argument, not an empty argument list
+      return resolve(requestedClass, predicateInput, 1, null, null, null, null, null, true);
     }
-    return ret;
+    return resolve(requestedClass, predicateInput, factoryInput.length, null, null, null, null, factoryInput, true);
   }
 
   /**
-   * Reloads the classes providing static factory methods. Public to enable pre-fetching later.
+   * Ends the given lease, returning its object to the pool it was taken from. Same as {@link FactoryLease#close()}.
+   *
+   * @param lease the lease to end. Might be {@code null}.
    */
-  public static void reload() {
-    FACTORY_METHODS.clear();
-    final URL resource = ClassLoader.getSystemResource(SERVICES_FILE);
-
-    if (resource == null) {
-      LOG.info("No services for static factories found.");
-    } else {
-      load(resource);
+  public static void release(final FactoryLease<?> lease) {
+    if (lease != null) {
+      lease.close();
     }
   }
 
-  private static void load(final URL url) {
-    final Properties properties = new Properties();
-    try (final InputStream is = url.openStream()) {
-      properties.load(is);
-    } catch (final IOException ex) {
-      if (LOG.isErrorEnabled()) {
-        LOG.error("Problems opening a stream for " + url, ex);
+  /**
+   * Resolves and invokes the factory method as described at {@link #getObject(Class, Object, Object...)}.
+   * <p>The factory input is either given as array or, to avoid allocating one, as up to {@value FactoryInvoker#MAX_FIXED_ARITY} single arguments. See
+   * {@link #createObject(MethodMetaData, int, Object, Object, Object, Object, Object[])}.</p>
+   *
+   * @param lease whether to return a {@link FactoryLease} of the created object instead of the object itself
+   */
+  private static <R, I> R resolve(final Class<?> requestedClass, final I predicateInput, final int count, final Object argument0, final Object argument1, final Object argument2,
+      final Object argument3, final Object[] arguments, final boolean lease) {
+    Object ret = null;
+    final FactoryRegistry registry = getRegistry();
+    final MethodGroup group = registry.getMethods(requestedClass);
+
+    // equal requests of cacheable methods get the same result
+    final ResultCache resultCache = group.isCacheable() ? registry.getResultCache() : null;
+    final ResultKey resultKey = resultCache == null
+        ? null
+        : new ResultKey(requestedClass, predicateInput, arguments != null ? arguments.clone() : toArray(count, argument0, argument1, argument2, argument3, null));
+    if (resultKey != null) {
+      final ResultCache.Result cached = resultCache.get(resultKey);
+      if (cached != null) {
+        return toResult(cached.method, cached.value, lease);
       }
     }
 
-    loadClasses(properties);
+    // try the method resolved before for the same classes - a null input has no class to cache by
+    final LruCache<ResolutionKey, MethodMetaData> resolutionCache = registry.getResolutionCache();
+    final ResolutionKey key = resolutionCache == null || predicateInput == null
+        ? null
+        : new ResolutionKey(requestedClass, predicateInput.getClass(), toArray(count, argument0, argument1, argument2, argument3, arguments));
+    if (key != null) {
+      final MethodMetaData resolved = resolutionCache.get(key);
+      ret = createObject(resolved, count, argument0, argument1, argument2, argument3, arguments);
+      if (ret != null) {
+        // the method was only cached as all predicates are type stable
+        if (resultKey != null && resolved.options.cacheable) {
+          resultCache.put(resultKey, resolved, ret);
+        }
+        return toResult(resolved, ret, lease);
+      }
+    }
 
-  }
+    // if a specific class is requested, either the annotation must declare it or the method's return type must be of it
+    // and the method must have a predicate that can be used with the input
+    final MethodGroup.Candidates inputCandidates = group.getCandidates(getInputType(predicateInput));
+    final MethodMetaData[] candidates = inputCandidates.get(predicateInput);
+    if (candidates.length == 0) {
+      registry.countResolution(0);
+      return null;
+    }
 
-  private static void loadClasses(final Properties properties) {
-    for (final Object object : properties.keySet()) {
-      try {
-        final Class<?> clazz = Class.forName((String) object);
+    // equal requests no method was found for before, find none again
+    final NegativeCache negativeCache = areValueStable(candidates) ? registry.getNegativeCache() : null;
+    final ResultKey negativeKey = negativeCache == null ? null : new ResultKey(requestedClass, predicateInput, NO_ARGUMENTS);
+    if (negativeKey != null && negativeCache.contains(negativeKey)) {
+      registry.countResolution(0);
+      return null;
+    }
 
-        Arrays.stream(clazz.getDeclaredMethods()).filter((Method method) -> Modifier.isPublic(method.getModifiers())
-                && Modifier.isStatic(method.getModifiers())
-                && method.getAnnotation(StaticFactoryMethod.class) != null)
-                .forEach(StaticFactoryUtil::resolveAnnotation);
+    // test whether the predicate delivers true
+    final MethodMetaData[] allLeft = MethodResolver.filter(candidates, predicateInput);
+    registry.countResolution(allLeft.length);
+    if (allLeft.length == 0 && negativeKey != null) {
+      negativeCache.add(negativeKey);
+    }
 
-      } catch (final ClassNotFoundException ex) {
-        if (LOG.isInfoEnabled()) {
-          LOG.info("No class could be found for entry '" + object + "'", ex);
+    // if we have multiple left, just iterate on them, until one creates our object
+    for (int i = 0; i < allLeft.length; i++) {
+      ret = createObject(allLeft[i], count, argument0, argument1, argument2, argument3, arguments);
+      if (ret != null) {
+        // the candidates of this input might have been narrowed by its value, so the method can only be cached by class if all methods of the class are type stable
+        if (key != null && inputCandidates.isTypeStable()) {
+          resolutionCache.put(key, allLeft[i]);
         }
-      } catch (final SecurityException ex) {
-        if (LOG.isInfoEnabled()) {
-          LOG.info("Couldn't load methods for class: " + object + ". See exception details: ", ex);
+        if (resultKey != null && allLeft[i].options.cacheable && areValueStable(candidates)) {
+          resultCache.put(resultKey, allLeft[i], ret);
         }
+        return toResult(allLeft[i], ret, lease);
       }
     }
-  }
 
-  private static void resolveAnnotation(final Method method) {
-    for (final StaticFactoryMethod annotation : method.getAnnotationsByType(StaticFactoryMethod.class)) {
+    return null;
+  }
 
-      final MethodMetaData data = new MethodMetaData();
-      data.method = method;
-      data.methodReturnType = method.getReturnType();
+  /**
+   * Gets the class to look up the candidates for the given predicate input by. A {@code null} input is offered to the methods accepting any object only.
+   *
+   * @param predicateInput the predicate input, might be {@code null}
+   * @return the class of the input or {@link Object} for {@code null}
+   */
+  static Class<?> getInputType(final Object predicateInput) {
+    return predicateInput == null ? Object.class : predicateInput.getClass();
+  }
 
-      if (annotation.returns() != Class.class) {
-        data.annotatedReturnType = annotation.returns();
+  /**
+   * Checks whether all given methods have a predicate depending on the input's value only. Only then a result can be cached by the predicate input.
+   *
+   * @param methods the methods to check
+   * @return {@code true} if all predicates are value stable
+   */
+  private static boolean areValueStable(final MethodMetaData[] methods) {
+    for (final MethodMetaData method : methods) {
+      if (!method.options.isValueStable()) {
+        return false;
       }
+    }
+    return true;
+  }
 
-      data.checkPredicate = getPredicate(annotation);
+  @SuppressWarnings("unchecked")
+  private static <R> R toResult(final MethodMetaData data, final Object created, final boolean lease) {
+    return (R) (lease ? new FactoryLease<>(created, data.invoker) : created);
+  }
 
-      FACTORY_METHODS.add(data);
-    }
+  /**
+   * Resolves the factory methods that return the given class and accept the given predicate input type once, to create objects by them repeatedly.
+   * <p>The returned handle skips all lookups done by {@link #getObject(Class, Object, Object...)} on every call, it only evaluates the predicates and invokes the accepted method. It stays bound to
+   * the factory methods currently known for the context class loader, see {@link FactoryHandle}.</p>
+   *
+   * @param <T> the type of the class of the objects to create
+   * @param <I> the type of the input of the predicate
+   * @param requestedClass the class type that should be returned. Can be {@code null} to accept any factory method.
+   * @param inputType the class of the predicate input
+   * @return the handle, never {@code null}. Creates no object at all if there is no fitting factory method.
+   */
+  public static <T, I> FactoryHandle<T, I> handle(final Class<T> requestedClass, final Class<I> inputType) {
+    return new FactoryHandle<>(requestedClass, inputType, getRegistry().getMethods(requestedClass));
   }
 
+  /**
+   * Invokes the given factory method, if it takes the given arguments.
+   * <p>Methods not accepting the arguments are skipped without trying to invoke them, so they cost neither an exception nor a log entry. Only exceptions thrown by an invoked method are logged.<br>
+   * If the arguments are given as array, it is passed as it is. Otherwise the fixed-arity invoker method matching the number of arguments is called, so no array is allocated.</p>
+   *
+   * @param <T> the type of the created object
+   * @param data the method to invoke. Might be {@code null}.
+   * @param count the number of arguments
+   * @param argument0 the first argument, if not given as array
+   * @param argument1 the second argument, if not given as array
+   * @param argument2 the third argument, if not given as array
+   * @param argument3 the fourth argument, if not given as array
+   * @param arguments all arguments, or {@code null} if they are given one by one
+   * @return the created object, or {@code null} if the method does not accept the arguments or failed
+   */
   @SuppressWarnings("unchecked")
-  private static <T> Predicate<T> getPredicate(final StaticFactoryMethod annotation) {
-    Predicate<T> ret = null;
-    if (annotation.predicate() != Predicate.class) {
+  static <T> T createObject(final MethodMetaData data, final int count, final Object argument0, final Object argument1, final Object argument2, final Object argument3,
+      final Object[] arguments) {
+    T ret = null;
+    // a method taking other arguments cannot be called at all
+    if (data != null && data.accepts(count, argument0, argument1, argument2, argument3, arguments)) {
       try {
-        ret = annotation.predicate().newInstance();
-      } catch (InstantiationException | IllegalAccessException ex) {
-        LOG.info(() -> "Cannot create object for given predicate class: " + annotation.predicate(), ex);
+        ret = (T) invoke(data.invoker, count, argument0, argument1, argument2, argument3, arguments);
+      } catch (final Throwable ex) {
+        if (LOG.isErrorEnabled()) {
+          LOG.error(String.format("Object could not be created using the method: %s. With the parameters: %s", data.method.toString(),
+              Arrays.toString(toArray(count, argument0, argument1, argument2, argument3, arguments))), ex);
+        }
       }
     }
     return ret;
   }
 
-  private static final class MethodMetaData {
+  private static Object invoke(final FactoryInvoker invoker, final int count, final Object argument0, final Object argument1, final Object argument2, final Object argument3,
+      final Object[] arguments) throws Throwable {
+    if (arguments != null) {
+      return invoker.invoke(arguments);
+    }
+    switch (count) {
+      case 0:
+        return invoker.invoke0();
+      case 1:
+        return invoker.invoke1(argument0);
+      case 2:
+        return invoker.invoke2(argument0, argument1);
+      case 3:
+        return invoker.invoke3(argument0, argument1, argument2);
+      default:
+        return invoker.invoke4(argument0, argument1, argument2, argument3);
+    }
+  }
 
-    private Method method;
-    private Class<?> methodReturnType;
-    private Class<?> annotatedReturnType;
-    private Predicate<Object> checkPredicate;
+  /**
+   * Gets the arguments as array, creating it if they are given one by one.
+   */
+  private static Object[] toArray(final int count, final Object argument0, final Object argument1, final Object argument2, final Object argument3, final Object[] arguments) {
+    return arguments != null ? arguments : Arrays.copyOf(new Object[] {argument0, argument1, argument2, argument3}, count);
   }
-  
-  private static final class IsTestMethodPredicate implements Predicate<Method> {
-    @Override
-    public boolean test(final Method method) {
-      return "test".equals(method.getName());
-    }
+
+  /**
+   * Reloads the classes providing static factory methods. Public to enable pre-fetching later.
+   * <p>The known factory methods are loaded only once per class loader and kept afterwards. Call this method to refresh them for the current class loader (see {@link #getClassLoader()}), e.g.
+   * after the class path changed. All caches configured by the system properties of this class and the statistics are dropped together with the old methods.<br>
+   * Calls made while the methods of the same class loader are being loaded, by this method or on first usage, do not load again but wait for that load and use its result.</p>
+   */
+  public static void reload() {
+    REGISTRIES.reload(getClassLoader());
   }
-  
-  private static final class IsNotSyntheticTestMethod implements Predicate<Method> {
-    @Override
-    public boolean test(final Method method) {
-      return !method.isSynthetic();
-    }
+
+  /**
+   * Frees the factory methods loaded for the given class loader right away, e.g. when an application with its own class loader is undeployed. Otherwise they are freed together with the loader,
+   * once it is no longer reachable.
+   *
+   * @param loader the loader to free the factory methods of
+   */
+  public static void release(final ClassLoader loader) {
+    REGISTRIES.release(loader);
+  }
+
+  /**
+   * Gets the counters of the cache of results of {@link StaticFactoryMethod#cacheable() cacheable} factory methods known to the current class loader (see {@link #getClassLoader()}).
+   *
+   * @return the statistics. All zero if there is no cacheable method or the cache is disabled.
+   */
+  public static FactoryCacheStatistics getResultCacheStatistics() {
+    final ResultCache resultCache = getRegistry().getResultCache();
+    return resultCache == null ? new FactoryCacheStatistics(0L, 0L, 0) : resultCache.getStatistics();
+  }
+
+  /**
+   * Gets the counters of the resolutions of factory methods known to the current class loader (see {@link #getClassLoader()}). Requests that found no or more than one method accepting the
+   * predicate input are counted, rather than logged.
+   *
+   * @return the statistics
+   */
+  public static FactoryResolutionStatistics getResolutionStatistics() {
+    return getRegistry().getResolutionStatistics();
+  }
+
+  /**
+   * Gets the registry of the current class loader, loading it if this was not done before.
+   *
+   * @return the current registry
+   */
+  private static FactoryRegistry getRegistry() {
+    return REGISTRIES.get(getClassLoader());
+  }
+
+  /**
+   * Gets the class loader to look up factory methods with. That is the context class loader of the current thread, or the loader of this class if there is none.
+   *
+   * @return the loader to use
+   */
+  private static ClassLoader getClassLoader() {
+    final ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+    return contextLoader == null ? StaticFactoryUtil.class.getClassLoader() : contextLoader;
   }
 }
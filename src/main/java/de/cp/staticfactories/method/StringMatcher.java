@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matcher of all {@link MethodOptions#isStringBased() string based} methods of a group, finding the methods accepting an input in a single pass.
+ * <p>
+ * The {@link StaticFactoryMethod#prefix() prefixes} of all methods are kept in a trie, which is walked along the characters of the input. The {@link StaticFactoryMethod#pattern() patterns} are
+ * merged into one expression, in which each pattern is an optional lookahead followed by an empty marker group: {@code (?:(?=(?:pattern)\z)())?}. After matching the merged expression once, the
+ * marker groups that took part in the match tell which patterns match the whole input.<br>
+ * Patterns that cannot be merged, i.e. ones using back references that would be renumbered or leaking into the surrounding expression, are matched separately. So are all patterns if the
+ * merged expression cannot be compiled, e.g. due to named groups declared by more than one pattern.
+ * </p>
+ * <p>The matchers and the matches are kept per thread and reused, so filtering allocates nothing unless a candidate is removed. Instances can be shared between threads.</p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class StringMatcher {
+
+  /**
+   * Finds numbered and named back references.
+   */
+  private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+
+  /**
+   * The string based methods, by their position in the arrays.
+   */
+  private final Map<MethodMetaData, Integer> positions = new IdentityHashMap<>();
+
+  /**
+   * Whether the method at a position declares prefixes, used to check whether a method needs a matching prefix.
+   */
+  private final boolean[] withPrefix;
+
+  /**
+   * Whether the method at a position declares a pattern, used to check whether a method needs a matching pattern.
+   */
+  private final boolean[] withPattern;
+
+  private final Node prefixes = new Node();
+
+  /**
+   * The merged expression, {@code null} if all patterns are matched separately.
+   */
+  private final Pattern merged;
+
+  /**
+   * The number of the marker group of each merged pattern, at the position of its method. {@code 0} for methods without merged pattern.
+   */
+  private final int[] markerGroups;
+
+  /**
+   * The patterns matched separately, at the position of their method. {@code null} for methods without separate pattern.
+   */
+  private final Pattern[] separate;
+
+  private final ThreadLocal<Matches> matches = ThreadLocal.withInitial(Matches::new);
+
+  StringMatcher(final MethodMetaData[] methods) {
+    final int size = (int) Arrays.stream(methods).filter((MethodMetaData method) -> method.options.isStringBased()).count();
+    this.withPrefix = new boolean[size];
+    this.withPattern = new boolean[size];
+    this.markerGroups = new int[size];
+    this.separate = new Pattern[size];
+
+    final StringBuilder expression = new StringBuilder();
+    final Map<Integer, Pattern> mergeable = new HashMap<>();
+    int group = 0;
+    for (final MethodMetaData method : methods) {
+      if (!method.options.isStringBased()) {
+        continue;
+      }
+      final int position = positions.size();
+      positions.put(method, position);
+
+      for (final String prefix : method.options.prefixes) {
+        withPrefix[position] = true;
+        prefixes.add(prefix, 0).addMethod(position);
+      }
+
+      final Pattern pattern = method.options.pattern;
+      if (pattern != null) {
+        withPattern[position] = true;
+        final String fragment = "(?:(?=(?:" + pattern.pattern() + ")\\z)())?";
+        if (BACK_REFERENCE.matcher(pattern.pattern()).find() || !isMergeable(fragment, pattern)) {
+          separate[position] = pattern;
+        } else {
+          mergeable.put(position, pattern);
+          // the groups of the pattern come before its marker group
+          group += pattern.matcher("").groupCount() + 1;
+          markerGroups[position] = group;
+          expression.append(fragment);
+        }
+      }
+    }
+    this.merged = compile(expression, mergeable);
+  }
+
+  /**
+   * Checks whether the given fragment of the merged expression keeps the structure of the given pattern, that is it compiles to the groups of the pattern followed by the marker group. It does not
+   * if the pattern leaks into the surrounding expression, e.g. by a quote {@code \Q} not ended by {@code \E}.
+   *
+   * @param fragment the pattern wrapped as it is merged
+   * @param pattern the pattern itself
+   * @return {@code true} if the pattern can be merged
+   */
+  private static boolean isMergeable(final String fragment, final Pattern pattern) {
+    try {
+      return Pattern.compile(fragment).matcher("").groupCount() == pattern.matcher("").groupCount() + 1;
+    } catch (final PatternSyntaxException ex) {
+      return false;
+    }
+  }
+
+  private Pattern compile(final CharSequence expression, final Map<Integer, Pattern> mergeable) {
+    if (mergeable.isEmpty()) {
+      return null;
+    }
+    try {
+      return Pattern.compile(expression.toString());
+    } catch (final PatternSyntaxException ex) {
+      Arrays.fill(markerGroups, 0);
+      mergeable.forEach((Integer position, Pattern pattern) -> separate[position] = pattern);
+      return null;
+    }
+  }
+
+  /**
+   * Removes the string based methods not accepting the given input from the given candidates. A method must match all of its conditions, that is one of its prefixes and its pattern.
+   *
+   * @param candidates the candidates to filter
+   * @param input the predicate input
+   * @return the candidates accepting the input in their order. The given array if all candidates accept the input.
+   */
+  MethodMetaData[] filter(final MethodMetaData[] candidates, final Object input) {
+    final CharSequence chars = input instanceof CharSequence ? (CharSequence) input : null;
+    // matched on the first string based candidate only
+    Matches state = null;
+    MethodMetaData[] ret = null;
+    int size = 0;
+    try {
+      for (int i = 0; i < candidates.length; i++) {
+        final Integer position = positions.get(candidates[i]);
+        if (position != null && chars != null && state == null) {
+          state = matches.get();
+          state.match(chars);
+        }
+        if (position == null || (chars != null && state.accepts(position))) {
+          if (ret != null) {
+            ret[size++] = candidates[i];
+          }
+        } else if (ret == null) {
+          // the first candidate removed - copy the ones accepted before
+          ret = Arrays.copyOf(candidates, candidates.length - 1);
+          size = i;
+        }
+      }
+    } finally {
+      if (state != null) {
+        state.reset();
+      }
+    }
+    return ret == null ? candidates : Arrays.copyOf(ret, size);
+  }
+
+  /**
+   * The matches of a single input, reused for all inputs matched by a thread.
+   */
+  private final class Matches {
+
+    /**
+     * Whether the method at a position declares a prefix of the input.
+     */
+    private final boolean[] prefixMatches = new boolean[withPrefix.length];
+
+    /**
+     * Whether the method at a position declares a pattern matching the input.
+     */
+    private final boolean[] patternMatches = new boolean[withPattern.length];
+
+    private final Matcher mergedMatcher = merged == null ? null : merged.matcher("");
+
+    private final Matcher[] separateMatchers = new Matcher[separate.length];
+
+    Matches() {
+      for (int i = 0; i < separate.length; i++) {
+        separateMatchers[i] = separate[i] == null ? null : separate[i].matcher("");
+      }
+    }
+
+    /**
+     * Walks the trie along the given input and matches it against the merged and the separate patterns.
+     *
+     * @param input the input to match
+     */
+    void match(final CharSequence input) {
+      Arrays.fill(prefixMatches, false);
+      Node node = prefixes;
+      for (int i = 0; node != null; i++) {
+        for (final int position : node.methods) {
+          prefixMatches[position] = true;
+        }
+        node = i < input.length() ? node.children.get(input.charAt(i)) : null;
+      }
+
+      Arrays.fill(patternMatches, false);
+      if (mergedMatcher != null && mergedMatcher.reset(input).lookingAt()) {
+        for (int position = 0; position < markerGroups.length; position++) {
+          patternMatches[position] = markerGroups[position] > 0 && mergedMatcher.start(markerGroups[position]) >= 0;
+        }
+      }
+      for (int position = 0; position < separateMatchers.length; position++) {
+        if (separateMatchers[position] != null) {
+          patternMatches[position] = separateMatchers[position].reset(input).matches();
+        }
+      }
+    }
+
+    boolean accepts(final int position) {
+      return (!withPrefix[position] || prefixMatches[position]) && (!withPattern[position] || patternMatches[position]);
+    }
+
+    /**
+     * Drops the input from the matchers, so it is not kept until the thread matches the next one.
+     */
+    void reset() {
+      if (mergedMatcher != null) {
+        mergedMatcher.reset("");
+      }
+      for (final Matcher matcher : separateMatchers) {
+        if (matcher != null) {
+          matcher.reset("");
+        }
+      }
+    }
+  }
+
+  /**
+   * A node of the prefix trie.
+   */
+  private static final class Node {
+
+    private final Map<Character, Node> children = new HashMap<>();
+
+    /**
+     * The positions of the methods declaring the prefix ending at this node.
+     */
+    private int[] methods = new int[0];
+
+    private Node add(final String prefix, final int index) {
+      return index == prefix.length() ? this : children.computeIfAbsent(prefix.charAt(index), (Character c) -> new Node()).add(prefix, index + 1);
+    }
+
+    private void addMethod(final int position) {
+      methods = Arrays.copyOf(methods, methods.length + 1);
+      methods[methods.length - 1] = position;
+    }
+  }
+}
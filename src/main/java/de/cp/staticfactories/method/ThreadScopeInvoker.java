@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Invokes a factory method once per thread and returns the thread's object afterwards, see {@link StaticFactoryMethod.Scope#THREAD}.
+ * <p>
+ * The objects are kept in a {@link ThreadLocal} owned by this invoker, each one wrapped in a holder. As the values of a thread local can only be removed by their own thread, the holders are
+ * tracked as well: {@link #clear()} empties all of them once the registry is released or replaced. Threads of a pool that live on keep an empty holder until their thread local map drops the
+ * stale entry. The holder is a JDK class, so it keeps neither the created object nor the class loader of the application alive.
+ * </p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class ThreadScopeInvoker extends ScopedInvoker {
+
+  private final ThreadLocal<AtomicReference<Object>> instances = new ThreadLocal<>();
+
+  /**
+   * The holders of all threads. Referenced weakly, so the holders of ended threads can be collected.
+   */
+  private final Collection<Reference<AtomicReference<Object>>> holders = new ConcurrentLinkedQueue<>();
+
+  ThreadScopeInvoker(final FactoryInvoker delegate) {
+    super(delegate);
+  }
+
+  @Override
+  Object current() {
+    final AtomicReference<Object> holder = instances.get();
+    return holder == null ? null : holder.get();
+  }
+
+  @Override
+  Object create(final Creation creation) throws Throwable {
+    final Object ret = creation.create();
+    if (ret != null) {
+      AtomicReference<Object> holder = instances.get();
+      if (holder == null) {
+        holder = new AtomicReference<>();
+        instances.set(holder);
+        holders.removeIf((Reference<AtomicReference<Object>> reference) -> reference.get() == null);
+        holders.add(new WeakReference<>(holder));
+      }
+      holder.set(ret);
+    }
+    return ret;
+  }
+
+  @Override
+  void clear() {
+    for (final Reference<AtomicReference<Object>> reference : holders) {
+      final AtomicReference<Object> holder = reference.get();
+      if (holder != null) {
+        holder.set(null);
+      }
+    }
+    holders.clear();
+  }
+}
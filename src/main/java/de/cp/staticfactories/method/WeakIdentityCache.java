@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A thread safe cache with a maximum size, comparing its keys by identity and referencing them weakly.
+ * <p>An entry is removed once its key was garbage collected, or if it is among the least recently used ones and the cache is full, see {@link LruCache}. Keys are never compared by
+ * {@link Object#equals(Object)}, so large objects can be used as keys without the cost of comparing them. Lookups do not lock.</p>
+ *
+ * @param <V> the type of the values
+ * @author cperv
+ * @version 0.2
+ */
+final class WeakIdentityCache<V> {
+
+  private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+  private final LruCache<IdentityKey, V> entries;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maximumSize the maximum number of entries
+   */
+  WeakIdentityCache(final int maximumSize) {
+    this.entries = new LruCache<>(maximumSize);
+  }
+
+  /**
+   * Gets the value cached for the given key.
+   *
+   * @param key the key to get the value for
+   * @return the value or {@code null} if none is cached
+   */
+  V get(final Object key) {
+    expunge();
+    return entries.get(new IdentityKey(key, null));
+  }
+
+  /**
+   * Caches the given value, evicting the least recently used entries if the cache is full.
+   *
+   * @param key the key of the value
+   * @param value the value to cache
+   */
+  void put(final Object key, final V value) {
+    expunge();
+    entries.put(new IdentityKey(key, collected), value);
+  }
+
+  /**
+   * Gets the number of cached entries, including those whose key was collected but not removed yet.
+   *
+   * @return the number of entries
+   */
+  int size() {
+    return entries.size();
+  }
+
+  private void expunge() {
+    for (Reference<?> key = collected.poll(); key != null; key = collected.poll()) {
+      entries.remove((IdentityKey) key);
+    }
+  }
+
+  /**
+   * Weak reference to a key, equal to other references to the same object. Keeps the identity hash code, so it can still be found and removed after the key was collected.
+   */
+  private static final class IdentityKey extends WeakReference<Object> {
+
+    private final int hashCode;
+
+    IdentityKey(final Object key, final ReferenceQueue<Object> queue) {
+      super(key, queue);
+      this.hashCode = System.identityHashCode(key);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof IdentityKey)) {
+        return false;
+      }
+      final Object key = get();
+      return key != null && key == ((IdentityKey) obj).get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package de.cp.staticfactories.method;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests caching the results of stable predicates by {@link CachedPredicate} and {@link WeakIdentityCache}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class CachedPredicateTest {
+
+  /**
+   * Checks predicates without stability are not wrapped, so they are evaluated for every input.
+   */
+  @Test
+  public void testUnstableIsNotCached() {
+    final CountingPredicate predicate = new CountingPredicate();
+
+    final Predicate<Object> cached = CachedPredicate.of(predicate, StaticFactoryMethod.Stability.NONE);
+    cached.test("a");
+    cached.test("a");
+
+    assertSame(predicate, cached);
+    assertEquals(2, predicate.calls);
+  }
+
+  /**
+   * Checks value stable predicates are evaluated once per equal input.
+   */
+  @Test
+  public void testValueStable() {
+    final CountingPredicate predicate = new CountingPredicate();
+
+    final Predicate<Object> cached = CachedPredicate.of(predicate, StaticFactoryMethod.Stability.VALUE);
+
+    assertTrue(cached.test("a"));
+    assertTrue(cached.test(new String("a")));
+    assertEquals(1, predicate.calls);
+    assertFalse(cached.test("b"));
+    assertFalse(cached.test("b"));
+    assertEquals(2, predicate.calls);
+  }
+
+  /**
+   * Checks type stable predicates are evaluated once per input class.
+   */
+  @Test
+  public void testTypeStable() {
+    final CountingPredicate predicate = new CountingPredicate();
+
+    final Predicate<Object> cached = CachedPredicate.of(predicate, StaticFactoryMethod.Stability.TYPE);
+
+    assertTrue(cached.test("a"));
+    // the cached result of the class is used, although the predicate would reject the value
+    assertTrue(cached.test("b"));
+    assertEquals(1, predicate.calls);
+    cached.test(1);
+    assertEquals(2, predicate.calls);
+  }
+
+  /**
+   * Checks identity stable predicates are evaluated once per instance, even if other instances are equal.
+   */
+  @Test
+  public void testIdentityStable() {
+    final CountingPredicate predicate = new CountingPredicate();
+    final List<String> input = new ArrayList<>(Arrays.asList("a"));
+
+    final Predicate<Object> cached = CachedPredicate.of(predicate, StaticFactoryMethod.Stability.IDENTITY);
+    cached.test(input);
+    cached.test(input);
+    assertEquals(1, predicate.calls);
+    cached.test(new ArrayList<>(input));
+    assertEquals(2, predicate.calls);
+  }
+
+  /**
+   * Checks the identity cache finds values by identity only and drops entries of collected keys.
+   */
+  @Test
+  public void testWeakIdentityCache() throws InterruptedException {
+    final WeakIdentityCache<String> cache = new WeakIdentityCache<>(16);
+    final List<String> kept = new ArrayList<>(Arrays.asList("a"));
+    cache.put(kept, "kept");
+    cache.put(new ArrayList<>(kept), "collected");
+
+    assertEquals("kept", cache.get(kept));
+    assertNull(cache.get(new ArrayList<>(kept)));
+
+    for (int i = 0; i < 50 && cache.size() > 1; i++) {
+      System.gc();
+      Thread.sleep(10L);
+      // expunges the entries of collected keys
+      cache.get(kept);
+    }
+    assertEquals(1, cache.size());
+    assertEquals("kept", cache.get(kept));
+  }
+
+  /**
+   * Accepts inputs equal to "a" and counts its evaluations.
+   */
+  private static final class CountingPredicate implements Predicate<Object> {
+
+    private int calls;
+
+    @Override
+    public boolean test(final Object input) {
+      calls++;
+      return "a".equals(input) || input instanceof List;
+    }
+  }
+}
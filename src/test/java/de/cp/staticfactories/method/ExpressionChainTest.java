@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests filtering methods by their expressions by {@link ExpressionChain}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class ExpressionChainTest {
+
+  /**
+   * Checks all methods whose expression accepts the input are kept in their order, together with the methods without expression.
+   */
+  @Test
+  public void testFilter() {
+    final MethodMetaData integer = MethodFixtures.get("integer");
+    final MethodMetaData nonZero = MethodFixtures.get("nonZero");
+    final MethodMetaData any = MethodFixtures.get("any");
+    final MethodMetaData text = MethodFixtures.get("text");
+    final MethodMetaData[] all = {integer, nonZero, any, text};
+    final ExpressionChain chain = new ExpressionChain(all);
+
+    assertArrayEquals(new MethodMetaData[] {integer, nonZero, any}, chain.filter(all, -1));
+    assertArrayEquals(new MethodMetaData[] {integer, any}, chain.filter(all, 0));
+    assertArrayEquals(new MethodMetaData[] {any, text}, chain.filter(all, "on"));
+    assertArrayEquals(new MethodMetaData[] {any}, chain.filter(all, null));
+  }
+
+  /**
+   * Checks candidates being a part of the methods of the chain only are filtered by their own expressions, and returned as they are if all of them accept the input.
+   */
+  @Test
+  public void testFilterPartOfChain() {
+    final MethodMetaData integer = MethodFixtures.get("integer");
+    final MethodMetaData nonZero = MethodFixtures.get("nonZero");
+    final MethodMetaData any = MethodFixtures.get("any");
+    final MethodMetaData text = MethodFixtures.get("text");
+    final ExpressionChain chain = new ExpressionChain(new MethodMetaData[] {integer, nonZero, any, text});
+
+    final MethodMetaData[] candidates = {nonZero, text};
+    assertSame(candidates, chain.filter(candidates, 5));
+    assertArrayEquals(new MethodMetaData[] {text}, chain.filter(new MethodMetaData[] {integer, text}, "on"));
+    assertArrayEquals(new MethodMetaData[0], chain.filter(candidates, 0));
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests unboxing and widening arguments by {@link FactoryArguments}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class FactoryArgumentsTest {
+
+  /**
+   * Checks integral values are widened to {@code double} without losing precision, like {@link java.lang.reflect.Method#invoke(Object, Object...)} does.
+   */
+  @Test
+  public void testToDoubleKeepsPrecision() {
+    assertEquals(16777217.0, FactoryArguments.toDouble(16777217), 0.0);
+    assertEquals(123456789.0, FactoryArguments.toDouble(123456789L), 0.0);
+    assertEquals(Long.MAX_VALUE, FactoryArguments.toDouble(Long.MAX_VALUE), 0.0);
+    assertEquals(0.1f, FactoryArguments.toDouble(0.1f), 0.0);
+    assertEquals(0.1, FactoryArguments.toDouble(0.1), 0.0);
+    assertEquals(97.0, FactoryArguments.toDouble('a'), 0.0);
+  }
+
+  /**
+   * Checks the widening conversions to the other primitive types.
+   */
+  @Test
+  public void testWidening() {
+    assertEquals(16777216f, FactoryArguments.toFloat(16777217), 0f);
+    assertEquals(5L, FactoryArguments.toLong((byte) 5));
+    assertEquals(97, FactoryArguments.toInt('a'));
+    assertEquals(5, FactoryArguments.toShort((byte) 5));
+    assertTrue(FactoryArguments.toBoolean(Boolean.TRUE));
+  }
+
+  /**
+   * Checks narrowing conversions and {@code null} are rejected.
+   */
+  @Test
+  public void testMismatch() {
+    assertThrows(IllegalArgumentException.class, () -> FactoryArguments.toInt(5L));
+    assertThrows(IllegalArgumentException.class, () -> FactoryArguments.toLong(5.0));
+    assertThrows(IllegalArgumentException.class, () -> FactoryArguments.toFloat(5.0));
+    assertThrows(IllegalArgumentException.class, () -> FactoryArguments.toChar(97));
+    assertThrows(IllegalArgumentException.class, () -> FactoryArguments.toDouble(null));
+  }
+
+  /**
+   * Checks the arguments accepted for a parameter are the ones the {@code to...} methods convert.
+   */
+  @Test
+  public void testIsAssignable() {
+    assertTrue(FactoryArguments.isAssignable(double.class, 5));
+    assertTrue(FactoryArguments.isAssignable(double.class, 5f));
+    assertFalse(FactoryArguments.isAssignable(int.class, 5L));
+    assertFalse(FactoryArguments.isAssignable(int.class, null));
+    assertTrue(FactoryArguments.isAssignable(String.class, null));
+    assertFalse(FactoryArguments.isAssignable(String.class, 5));
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package de.cp.staticfactories.method;
+
+import de.cp.staticfactories.method.StaticFactoryUtilTest.Codec;
+import de.cp.staticfactories.method.StaticFactoryUtilTest.Joined;
+import de.cp.staticfactories.method.StaticFactoryUtilTest.Labeled;
+import de.cp.staticfactories.method.StaticFactoryUtilTest.Sized;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests creating objects by a {@link FactoryHandle}. The methods are the ones {@link StaticFactoryUtilTest} resolves.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class FactoryHandleTest {
+
+  /**
+   * Checks a handle takes the same methods as {@link StaticFactoryUtil#getObject(Class, Object, Object...)} for each input.
+   */
+  @Test
+  public void testCreate() {
+    final FactoryHandle<Codec, String> handle = StaticFactoryUtil.handle(Codec.class, String.class);
+
+    assertEquals("json", handle.create("json").name);
+    assertEquals("xml", handle.create("xml").name);
+    assertEquals("any", handle.create("csv").name);
+    assertEquals("none", handle.create(null).name);
+    assertSame(Codec.class, handle.getRequestedClass());
+    assertSame(String.class, handle.getInputType());
+  }
+
+  /**
+   * Checks a handle resolved for a super type of the input also takes the methods having a predicate for the input's class.
+   */
+  @Test
+  public void testSubclassInput() {
+    final FactoryHandle<Codec, Object> handle = StaticFactoryUtil.handle(Codec.class, Object.class);
+
+    assertEquals("json", handle.create("json").name);
+    assertEquals("any", handle.create("csv").name);
+    assertEquals("none", handle.create(null).name);
+    assertNull(handle.create(5));
+    assertEquals("xml", StaticFactoryUtil.handle(Codec.class, CharSequence.class).create("xml").name);
+  }
+
+  /**
+   * Checks the arguments are given to the method taking them, whether they are given one by one or as a single array.
+   */
+  @Test
+  public void testArguments() {
+    final FactoryHandle<Joined, String> handle = StaticFactoryUtil.handle(Joined.class, String.class);
+
+    assertEquals("ab", handle.create("join", "a", "b").name);
+    assertEquals("aaa", handle.create("join", "a", 3).name);
+    assertEquals("abcc", handle.create("join", "a", "b", "c", 2).name);
+    assertEquals("abcde", handle.create("join", "a", "b", "c", "d", "e").name);
+    assertEquals("ab", handle.create("join", new Object[] {"a", "b"}).name);
+    assertEquals("x", StaticFactoryUtil.handle(Labeled.class, String.class).create("label", new Object[] {"x"}).name);
+    assertNull(handle.create("join", "a", 3L));
+    assertNull(handle.create("join", "a"));
+  }
+
+  /**
+   * Checks a handle keeps creating objects by the methods it was resolved for after the methods were reloaded.
+   */
+  @Test
+  public void testReload() {
+    final FactoryHandle<Labeled, String> handle = StaticFactoryUtil.handle(Labeled.class, String.class);
+    StaticFactoryUtil.reload();
+
+    assertEquals("x", handle.create("label", "x").name);
+  }
+
+  /**
+   * Checks a handle is returned even if there is no method for the input type, which then creates nothing.
+   */
+  @Test
+  public void testNoMethod() {
+    final FactoryHandle<Sized, String> handle = StaticFactoryUtil.handle(Sized.class, String.class);
+
+    assertNull(handle.create("small"));
+    assertNull(handle.create(null));
+  }
+}
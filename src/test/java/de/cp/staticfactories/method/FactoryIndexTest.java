@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package de.cp.staticfactories.method;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests writing and reading the {@link FactoryIndex}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class FactoryIndexTest {
+
+  /**
+   * Checks entries are read as they were written, including values that must be escaped and lists of values.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    final Properties first = newEntry("a.B", "create");
+    first.setProperty(FactoryIndex.PATTERN, "(?i)file:\\w+=.*");
+    first.setProperty(FactoryIndex.EXPRESSION, "it == \"\u00e4 b\" || !(it instanceof Integer)");
+    FactoryIndex.setValues(first, FactoryIndex.KEYS, Arrays.asList("json", "#x", "a.b"));
+    final Properties second = newEntry("a.C$D", "get");
+    FactoryIndex.setValues(second, FactoryIndex.RANGE, Arrays.asList("-5", "9223372036854775807"));
+
+    final List<Properties> read = writeAndRead(Arrays.asList(first, second));
+
+    assertEquals(Arrays.asList(first, second), read);
+    assertArrayEquals(new String[] {"json", "#x", "a.b"}, FactoryIndex.getValues(read.get(0), FactoryIndex.KEYS));
+    assertArrayEquals(new String[] {"-5", "9223372036854775807"}, FactoryIndex.getValues(read.get(1), FactoryIndex.RANGE));
+  }
+
+  /**
+   * Checks an index of many entries is read completely and in order.
+   */
+  @Test
+  public void testManyEntries() throws IOException {
+    final List<Properties> entries = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      entries.add(newEntry("a.B" + i, "create" + i));
+    }
+
+    final List<Properties> read = writeAndRead(entries);
+
+    assertEquals(entries, read);
+  }
+
+  /**
+   * Checks reading stops at the first missing entry number.
+   */
+  @Test
+  public void testReadStopsAtGap() throws IOException {
+    final String index = "0.class=a.B\n0.method=create\n2.class=a.C\n2.method=get\n";
+
+    final List<Properties> read = FactoryIndex.read(new ByteArrayInputStream(index.getBytes("ISO-8859-1")));
+
+    assertEquals(1, read.size());
+    assertEquals("a.B", read.get(0).getProperty(FactoryIndex.CLASS));
+    assertTrue(read.get(0).containsKey(FactoryIndex.METHOD));
+  }
+
+  private static Properties newEntry(final String className, final String method) {
+    final Properties entry = new Properties();
+    entry.setProperty(FactoryIndex.CLASS, className);
+    entry.setProperty(FactoryIndex.METHOD, method);
+    entry.setProperty(FactoryIndex.DESCRIPTOR, "(Ljava/lang/String;I)Ljava/lang/Object;");
+    return entry;
+  }
+
+  private static List<Properties> writeAndRead(final List<Properties> entries) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    FactoryIndex.write(entries, out);
+    return FactoryIndex.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+}
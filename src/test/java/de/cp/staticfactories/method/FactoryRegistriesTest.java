@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package de.cp.staticfactories.method;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests loading registries by {@link FactoryRegistries}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class FactoryRegistriesTest {
+
+  private static final int THREADS = 8;
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Checks threads requesting the registry of a loader at the same time load it only once and all get the same registry.
+   */
+  @Test
+  public void testConcurrentLoadsAreSingleFlight() throws Exception {
+    final FactoryRegistries registries = new FactoryRegistries();
+    final CountingLoader loader = new CountingLoader();
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      final List<Future<FactoryRegistry>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit((Callable<FactoryRegistry>) () -> {
+          start.await();
+          return registries.get(loader);
+        }));
+      }
+      start.countDown();
+
+      final FactoryRegistry first = futures.get(0).get();
+      for (final Future<FactoryRegistry> future : futures) {
+        assertSame(first, future.get());
+      }
+      assertEquals(1, loader.loads.get());
+      assertSame(first, registries.get(loader));
+      assertEquals(1, loader.loads.get());
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Checks a released registry is loaded again on the next request, while a reload replaces it.
+   */
+  @Test
+  public void testReleaseAndReload() {
+    final FactoryRegistries registries = new FactoryRegistries();
+    final CountingLoader loader = new CountingLoader();
+    final FactoryRegistry first = registries.get(loader);
+
+    registries.reload(loader);
+    final FactoryRegistry reloaded = registries.get(loader);
+    registries.release(loader);
+    final FactoryRegistry afterRelease = registries.get(loader);
+
+    assertNotSame(first, reloaded);
+    assertNotSame(reloaded, afterRelease);
+    assertEquals(3, loader.loads.get());
+  }
+
+  /**
+   * Checks the registry of a loader is kept while the loader is in use, but does not keep the loader alive once it is dropped without releasing it.
+   */
+  @Test
+  public void testDroppedLoaderIsCollected() throws Exception {
+    final FactoryRegistries registries = new FactoryRegistries();
+    final File classes = TestCompiler.compile(folder.getRoot(), Collections.singletonMap("sample.Colors", "package sample;\n"
+        + "public final class Colors {\n"
+        + "  @de.cp.staticfactories.method.StaticFactoryMethod\n"
+        + "  public static StringBuilder red() {\n"
+        + "    return new StringBuilder(\"red\");\n"
+        + "  }\n"
+        + "}\n"));
+
+    URLClassLoader loader = TestCompiler.newLoader(classes);
+    final Reference<FactoryRegistry> registry = new WeakReference<>(registries.get(loader));
+    collectGarbage(registry);
+    assertSame(registry.get(), registries.get(loader));
+    assertEquals("red", registries.get(loader).getMethods(StringBuilder.class).getMethods()[0].method.invoke(null).toString());
+
+    final Reference<ClassLoader> dropped = new WeakReference<>(loader);
+    loader.close();
+    loader = null;
+    collectGarbage(dropped);
+    assertNull(dropped.get());
+    assertNull(registry.get());
+  }
+
+  /**
+   * Requests garbage collections until the given reference is cleared, but for a few seconds at most.
+   */
+  private static void collectGarbage(final Reference<?> reference) throws InterruptedException {
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20L);
+    }
+  }
+
+  /**
+   * A loader without services files, counting how often they are looked up. Looking them up takes a while, so concurrent requests overlap.
+   */
+  private static final class CountingLoader extends ClassLoader {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    CountingLoader() {
+      super(null);
+    }
+
+    @Override
+    public Enumeration<URL> getResources(final String name) throws IOException {
+      if (StaticFactoryUtil.SERVICES_FILE.equals(name)) {
+        loads.incrementAndGet();
+        try {
+          Thread.sleep(100L);
+        } catch (final InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return Collections.emptyEnumeration();
+    }
+  }
+}
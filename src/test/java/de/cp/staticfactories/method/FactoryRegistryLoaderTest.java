@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package de.cp.staticfactories.method;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests loading the methods of multiple jars by the {@link FactoryRegistryLoader}. The jars are simulated by directories of classes compiled by the {@link StaticFactoryProcessor}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class FactoryRegistryLoaderTest {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Checks the indexes of two jars of the same loader are merged, taking a class listed by both only once.
+   */
+  @Test
+  public void testIndexesOfTwoJarsAreMerged() throws IOException {
+    final File colors = compile("colors", source("sample.Colors", "red", "green"));
+    final Map<String, String> sources = source("sample.Colors", "red", "green");
+    sources.putAll(source("sample.Shapes", "circle", "square"));
+    final File shapes = compile("shapes", sources);
+
+    try (final URLClassLoader loader = TestCompiler.newLoader(colors, shapes)) {
+      final MethodMetaData[] methods = FactoryRegistryLoader.load(loader).getMethods(StringBuilder.class).getMethods();
+
+      assertEquals(Arrays.asList("sample.Colors.green", "sample.Colors.red", "sample.Shapes.circle", "sample.Shapes.square"), getNames(methods));
+      for (final MethodMetaData method : methods) {
+        assertFalse(method.invoker instanceof MethodHandleInvoker);
+        assertSame(loader, method.method.getDeclaringClass().getClassLoader());
+      }
+    }
+  }
+
+  /**
+   * Checks the methods of a parent loader and its child are merged, each class being loaded by the loader of the jar listing it.
+   */
+  @Test
+  public void testIndexesOfParentAndChildLoaderAreMerged() throws IOException {
+    final File colors = compile("colors", source("sample.Colors", "red"));
+    final File shapes = compile("shapes", source("sample.Shapes", "circle"));
+
+    try (final URLClassLoader parent = TestCompiler.newLoader(colors);
+        final URLClassLoader child = new URLClassLoader(new URL[] {shapes.toURI().toURL()}, parent)) {
+      final MethodMetaData[] methods = FactoryRegistryLoader.load(child).getMethods(StringBuilder.class).getMethods();
+
+      assertEquals(Arrays.asList("sample.Colors.red", "sample.Shapes.circle"), getNames(methods));
+      for (final MethodMetaData method : methods) {
+        assertSame(method.method.getName().equals("red") ? parent : child, method.method.getDeclaringClass().getClassLoader());
+      }
+    }
+  }
+
+  /**
+   * Checks the classes of a jar without index are scanned, while the ones of the other jar are taken from its index.
+   */
+  @Test
+  public void testJarWithoutIndexIsScanned() throws IOException {
+    final File colors = compile("colors", source("sample.Colors", "red"));
+    final File shapes = compile("shapes", source("sample.Shapes", "circle"));
+    Files.delete(new File(shapes, StaticFactoryUtil.INDEX_FILE).toPath());
+
+    try (final URLClassLoader loader = TestCompiler.newLoader(colors, shapes)) {
+      final MethodMetaData[] methods = FactoryRegistryLoader.load(loader).getMethods(StringBuilder.class).getMethods();
+
+      assertEquals(Arrays.asList("sample.Colors.red", "sample.Shapes.circle"), getNames(methods));
+      for (final MethodMetaData method : methods) {
+        assertTrue(method.method.getName().equals("circle") == method.invoker instanceof MethodHandleInvoker);
+      }
+    }
+  }
+
+  /**
+   * Checks an annotation that cannot be resolved when scanning a class only drops its own method, not the other methods of the class.
+   */
+  @Test
+  public void testUnresolvableAnnotationIsSkipped() throws IOException {
+    final Map<String, String> sources = source("sample.Colors", "red");
+    sources.put("sample.Colors", sources.get("sample.Colors").replace("}\n}\n", "}\n"
+        + "  @de.cp.staticfactories.method.StaticFactoryMethod(predicate = sample.Missing.class)\n"
+        + "  public static StringBuilder blue() {\n"
+        + "    return new StringBuilder(\"blue\");\n"
+        + "  }\n"
+        + "}\n"));
+    sources.put("sample.Missing", "package sample;\n"
+        + "public final class Missing implements java.util.function.Predicate<String> {\n"
+        + "  public boolean test(final String input) {\n"
+        + "    return true;\n"
+        + "  }\n"
+        + "}\n");
+    final File colors = compile("colors", sources);
+    // scanned, and the predicate of blue is missing at runtime
+    Files.delete(new File(colors, StaticFactoryUtil.INDEX_FILE).toPath());
+    Files.delete(new File(colors, "sample/Missing.class").toPath());
+
+    try (final URLClassLoader loader = TestCompiler.newLoader(colors)) {
+      assertEquals(Collections.singletonList("sample.Colors.red"), getNames(FactoryRegistryLoader.load(loader).getMethods(StringBuilder.class).getMethods()));
+    }
+  }
+
+  private File compile(final String name, final Map<String, String> sources) throws IOException {
+    return TestCompiler.compile(folder.newFolder(name), sources);
+  }
+
+  /**
+   * Creates the source of a class with factory methods of the given names, each returning a {@link StringBuilder} holding its name.
+   */
+  private static Map<String, String> source(final String className, final String... methodNames) {
+    final int dot = className.lastIndexOf('.');
+    final StringBuilder source = new StringBuilder("package ").append(className, 0, dot).append(";\n")
+        .append("public final class ").append(className.substring(dot + 1)).append(" {\n");
+    for (final String methodName : methodNames) {
+      source.append("  @de.cp.staticfactories.method.StaticFactoryMethod(keys = \"").append(methodName).append("\")\n")
+          .append("  public static StringBuilder ").append(methodName).append("() {\n")
+          .append("    return new StringBuilder(\"").append(methodName).append("\");\n")
+          .append("  }\n");
+    }
+    final Map<String, String> sources = new LinkedHashMap<>();
+    sources.put(className, source.append("}\n").toString());
+    return sources;
+  }
+
+  private static List<String> getNames(final MethodMetaData[] methods) {
+    return Arrays.stream(methods).map((MethodMetaData method) -> method.method.getDeclaringClass().getName() + "." + method.method.getName()).sorted().collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the invokers written by {@link InvokerSourceWriter}, compiling a factory by the {@link StaticFactoryProcessor}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class InvokerSourceWriterTest {
+
+  private static final String FACTORY = "sample.Shapes";
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Checks the generated invoker passes integral arguments to a {@code double} parameter with the same value as reflection does.
+   */
+  @Test
+  public void testDoubleParameter() throws Throwable {
+    final File classes = TestCompiler.compile(folder.getRoot(), Collections.singletonMap(FACTORY, "package sample;\n"
+        + "public final class Shapes {\n"
+        + "  @de.cp.staticfactories.method.StaticFactoryMethod\n"
+        + "  public static String circle(final double radius) {\n"
+        + "    return \"Circle\" + radius;\n"
+        + "  }\n"
+        + "}\n"));
+
+    try (final URLClassLoader loader = TestCompiler.newLoader(classes)) {
+      final Method method = loader.loadClass(FACTORY).getMethod("circle", double.class);
+      final FactoryInvoker invoker = createInvoker(loader, "circle");
+
+      for (final Object argument : new Object[] {16777217, 123456789L, 0.1f, 0.1, 'a'}) {
+        final Object expected = method.invoke(null, argument);
+        assertEquals(expected, invoker.invoke1(argument));
+        assertEquals(expected, invoker.invoke(argument));
+        assertEquals(expected, new MethodHandleInvoker(method).invoke1(argument));
+      }
+    }
+  }
+
+  /**
+   * Creates the invoker the index of the given loader names for the given method.
+   */
+  private static FactoryInvoker createInvoker(final ClassLoader loader, final String methodName) throws Exception {
+    final List<Properties> index;
+    try (final InputStream is = loader.getResource(StaticFactoryUtil.INDEX_FILE).openStream()) {
+      index = FactoryIndex.read(is);
+    }
+    for (final Properties entry : index) {
+      if (methodName.equals(entry.getProperty(FactoryIndex.METHOD))) {
+        return loader.loadClass(entry.getProperty(FactoryIndex.INVOKER)).asSubclass(FactoryInvoker.class).getDeclaredConstructor().newInstance();
+      }
+    }
+    throw new AssertionError("No index entry for " + methodName);
+  }
+}
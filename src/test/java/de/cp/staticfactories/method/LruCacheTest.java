@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package de.cp.staticfactories.method;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link LruCache}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class LruCacheTest {
+
+  /**
+   * Checks the least recently used entries are evicted once the cache is full, while recently used ones are kept.
+   */
+  @Test
+  public void testEvictsLeastRecentlyUsed() throws InterruptedException {
+    final LruCache<Integer, String> cache = new LruCache<>(10);
+    for (int i = 0; i < 10; i++) {
+      cache.put(i, "v" + i);
+    }
+    Thread.sleep(2L);
+    for (int i = 0; i < 5; i++) {
+      assertEquals("v" + i, cache.get(i));
+    }
+    Thread.sleep(2L);
+
+    cache.put(10, "v10");
+
+    assertTrue(cache.size() <= 10);
+    for (int i = 0; i < 5; i++) {
+      assertEquals("v" + i, cache.get(i));
+    }
+    assertEquals("v10", cache.get(10));
+    assertNull(cache.get(5));
+  }
+
+  /**
+   * Checks concurrent readers and writers keep the cache bounded and consistent.
+   */
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    final LruCache<Integer, Integer> cache = new LruCache<>(100);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        final int offset = t * 1000;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 10000; i++) {
+            final int key = offset + i % 1000;
+            final Integer value = cache.get(key);
+            if (value == null) {
+              cache.put(key, key);
+            } else {
+              assertEquals(key, value.intValue());
+            }
+          }
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+    cache.put(-1, -1);
+    assertTrue(cache.size() <= 100);
+  }
+}
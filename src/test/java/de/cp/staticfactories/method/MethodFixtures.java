@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the meta data of annotated methods, to test the indexes of a {@link MethodGroup} without loading a registry.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class MethodFixtures {
+
+  private MethodFixtures() {
+  }
+
+  /**
+   * Creates the meta data of the method of {@link Methods} with the given name.
+   *
+   * @param name the name of the method
+   * @return the meta data
+   */
+  static MethodMetaData get(final String name) {
+    try {
+      final Method method = Methods.class.getMethod(name);
+      return new MethodMetaData(method, null, null, null, new MethodHandleInvoker(method), MethodOptions.of(method.getAnnotation(StaticFactoryMethod.class)));
+    } catch (final NoSuchMethodException | IllegalAccessException ex) {
+      throw new IllegalArgumentException("No fixture method " + name, ex);
+    }
+  }
+
+  /**
+   * The annotated methods, each returning its name.
+   */
+  public static final class Methods {
+
+    private Methods() {
+    }
+
+    @StaticFactoryMethod(range = {0, 9})
+    public static String low() {
+      return "low";
+    }
+
+    @StaticFactoryMethod(range = {5, 14})
+    public static String middle() {
+      return "middle";
+    }
+
+    @StaticFactoryMethod(range = {10, 19})
+    public static String high() {
+      return "high";
+    }
+
+    @StaticFactoryMethod(range = {Long.MIN_VALUE, -1})
+    public static String negative() {
+      return "negative";
+    }
+
+    @StaticFactoryMethod(range = {1, Long.MAX_VALUE})
+    public static String positive() {
+      return "positive";
+    }
+
+    @StaticFactoryMethod
+    public static String any() {
+      return "any";
+    }
+
+    @StaticFactoryMethod(prefix = {"http://", "https://"})
+    public static String http() {
+      return "http";
+    }
+
+    @StaticFactoryMethod(prefix = "https://")
+    public static String https() {
+      return "https";
+    }
+
+    @StaticFactoryMethod(pattern = ".*\\.xml")
+    public static String xml() {
+      return "xml";
+    }
+
+    @StaticFactoryMethod(prefix = "https://", pattern = ".*\\.xml")
+    public static String httpsXml() {
+      return "httpsXml";
+    }
+
+    @StaticFactoryMethod(pattern = "(.)\\1.*")
+    public static String doubled() {
+      return "doubled";
+    }
+
+    @StaticFactoryMethod(pattern = "a\\Q.b")
+    public static String quoted() {
+      return "quoted";
+    }
+
+    @StaticFactoryMethod(pattern = "(?<n>a).*")
+    public static String namedA() {
+      return "namedA";
+    }
+
+    @StaticFactoryMethod(pattern = "(?<n>b).*")
+    public static String namedB() {
+      return "namedB";
+    }
+
+    @StaticFactoryMethod(expression = "it instanceof Integer")
+    public static String integer() {
+      return "integer";
+    }
+
+    @StaticFactoryMethod(expression = "it instanceof Integer && it != 0")
+    public static String nonZero() {
+      return "nonZero";
+    }
+
+    @StaticFactoryMethod(expression = "it == \"on\" || it == 5")
+    public static String text() {
+      return "text";
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package de.cp.staticfactories.method;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.function.Predicate;
+
+/**
+ * Measures the crossover between the sequential and the parallel filtering of {@link MethodResolver}.
+ * <p>
+ * Not a unit test - run it with {@code main} on the target machine and set the system property {@value MethodResolver#PARALLEL_THRESHOLD_PROPERTY} to the first candidate count for which the
+ * parallel filtering is faster.<br>
+ * The predicates simulate a cheap check (a string comparison) and a costly one (a regular expression), as the crossover depends heavily on the predicates' costs.
+ * </p>
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public final class MethodResolverBenchmark {
+
+  private static final int[] SIZES = {16, 64, 256, 1024, 4096, 8192, 16384, 65536};
+
+  private static final long MEASURE_NANOS = 300_000_000L;
+
+  private MethodResolverBenchmark() {
+  }
+
+  public static void main(final String[] args) throws NoSuchMethodException {
+    final Method method = MethodResolverBenchmark.class.getMethod("create");
+
+    run("cheap predicate", method, (Object input) -> "input".equals(input));
+    run("costly predicate", method, (Object input) -> ((String) input).matches("[a-z]+[0-9]*"));
+  }
+
+  /**
+   * Dummy factory method the benchmarked candidates refer to.
+   *
+   * @return always {@code null}
+   */
+  public static Object create() {
+    return null;
+  }
+
+  private static void run(final String name, final Method method, final Predicate<Object> predicate) {
+    System.out.println(name);
+    System.out.println(String.format("%10s %16s %16s", "candidates", "sequential ns", "parallel ns"));
+
+    Integer crossover = null;
+    for (final int size : SIZES) {
+      final MethodMetaData[] candidates = new MethodMetaData[size];
+      Arrays.fill(candidates, new MethodMetaData(method, Object.class, predicate, String.class, (Object... arguments) -> null,
+          MethodOptions.of(new Properties())));
+
+      final double sequential = measure(candidates, Integer.MAX_VALUE);
+      final double parallel = measure(candidates, 0);
+      System.out.println(String.format("%10d %16.0f %16.0f", size, sequential, parallel));
+      if (crossover == null && parallel < sequential) {
+        crossover = size;
+      }
+    }
+    System.out.println("parallel filtering pays off from " + (crossover == null ? "never" : crossover + " candidates") + " on");
+    System.out.println();
+  }
+
+  /**
+   * Measures the average time of a single filter call after a warm up.
+   */
+  private static double measure(final MethodMetaData[] candidates, final int parallelThreshold) {
+    int blackhole = 0;
+    for (int i = 0; i < 10_000 && i * candidates.length < 10_000_000; i++) {
+      blackhole += MethodResolver.filter(candidates, "input", parallelThreshold).length;
+    }
+
+    long calls = 0;
+    final long start = System.nanoTime();
+    long elapsed;
+    do {
+      blackhole += MethodResolver.filter(candidates, "input", parallelThreshold).length;
+      calls++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < MEASURE_NANOS);
+
+    if (blackhole == 42) {
+      System.out.print("");
+    }
+    return (double) elapsed / calls;
+  }
+}
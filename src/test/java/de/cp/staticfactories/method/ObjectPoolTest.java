@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests pooling objects by the {@link ObjectPool}, the {@link PooledInvoker} and {@link FactoryLease}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class ObjectPoolTest {
+
+  private static final int THREADS = 8;
+
+  /**
+   * Checks objects offered to a full pool are dropped and the most recently offered object is taken first.
+   */
+  @Test
+  public void testBound() {
+    final ObjectPool pool = new ObjectPool(2, 0L);
+    final Object first = new Object();
+    final Object second = new Object();
+
+    pool.offer(first);
+    pool.offer(second);
+    pool.offer(new Object());
+
+    assertEquals(2, pool.size());
+    assertSame(second, pool.poll());
+    assertSame(first, pool.poll());
+    assertNull(pool.poll());
+    assertEquals(0, pool.size());
+  }
+
+  /**
+   * Checks objects idle for longer than the maximum idle time are evicted, while newer ones are kept.
+   */
+  @Test
+  public void testIdleEviction() throws InterruptedException {
+    final ObjectPool pool = new ObjectPool(4, 50L);
+    pool.offer(new Object());
+    Thread.sleep(100L);
+    final Object recent = new Object();
+    pool.offer(recent);
+
+    assertEquals(1, pool.size());
+    assertSame(recent, pool.poll());
+    assertNull(pool.poll());
+  }
+
+  /**
+   * Checks idle objects are kept forever without maximum idle time.
+   */
+  @Test
+  public void testWithoutIdleTime() throws InterruptedException {
+    final ObjectPool pool = new ObjectPool(4, 0L);
+    final Object instance = new Object();
+    pool.offer(instance);
+    Thread.sleep(20L);
+
+    assertSame(instance, pool.poll());
+  }
+
+  /**
+   * Checks threads borrowing and returning objects concurrently never exceed the bound of the pool.
+   */
+  @Test
+  public void testConcurrentUse() throws Exception {
+    final ObjectPool pool = new ObjectPool(3, 0L);
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      final List<Future<Object>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit((Callable<Object>) () -> {
+          for (int j = 0; j < 10000; j++) {
+            final Object instance = pool.poll();
+            pool.offer(instance == null ? new Object() : instance);
+            assertTrue(pool.size() <= 3);
+          }
+          return null;
+        }));
+      }
+      for (final Future<Object> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+    assertEquals(3, pool.size());
+  }
+
+  /**
+   * Checks a lease returns its object to the pool once, even if it is closed twice, and cannot be used afterwards.
+   */
+  @Test
+  public void testLeaseClosedTwice() throws Throwable {
+    final AtomicInteger created = new AtomicInteger();
+    final ObjectPool pool = new ObjectPool(4, 0L);
+    final PooledInvoker invoker = new PooledInvoker((Object... arguments) -> new Object[] {created.incrementAndGet()}, pool);
+
+    final FactoryLease<Object> lease = new FactoryLease<>(invoker.invoke0(), invoker);
+    final Object instance = lease.get();
+    lease.close();
+    lease.close();
+
+    assertEquals(1, pool.size());
+    assertThrows(IllegalStateException.class, lease::get);
+
+    final FactoryLease<Object> first = new FactoryLease<>(invoker.invoke0(), invoker);
+    final FactoryLease<Object> second = new FactoryLease<>(invoker.invoke0(), invoker);
+    assertSame(instance, first.get());
+    assertNotSame(instance, second.get());
+    assertEquals(2, created.get());
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests looking up methods by the ranges of their inputs by {@link RangeIndex}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class RangeIndexTest {
+
+  /**
+   * Checks the methods of a range are found at both of its bounds, but not outside of them.
+   */
+  @Test
+  public void testSegmentBoundaries() {
+    final MethodMetaData low = MethodFixtures.get("low");
+    final MethodMetaData high = MethodFixtures.get("high");
+    final MethodMetaData any = MethodFixtures.get("any");
+    final RangeIndex index = new RangeIndex(new MethodMetaData[] {low, high, any});
+
+    assertArrayEquals(new MethodMetaData[] {low, any}, index.get(0));
+    assertArrayEquals(new MethodMetaData[] {low, any}, index.get(9));
+    assertArrayEquals(new MethodMetaData[] {high, any}, index.get(10));
+    assertArrayEquals(new MethodMetaData[] {high, any}, index.get(19));
+    assertArrayEquals(new MethodMetaData[] {any}, index.get(20));
+    assertArrayEquals(new MethodMetaData[] {any}, index.get(-1));
+  }
+
+  /**
+   * Checks ranges reaching the minimum or maximum of {@code long} contain the extreme values.
+   */
+  @Test
+  public void testOpenEnds() {
+    final MethodMetaData negative = MethodFixtures.get("negative");
+    final MethodMetaData positive = MethodFixtures.get("positive");
+    final RangeIndex index = new RangeIndex(new MethodMetaData[] {negative, positive});
+
+    assertArrayEquals(new MethodMetaData[] {negative}, index.get(Long.MIN_VALUE));
+    assertArrayEquals(new MethodMetaData[] {negative}, index.get(-1L));
+    assertArrayEquals(new MethodMetaData[0], index.get(0L));
+    assertArrayEquals(new MethodMetaData[] {positive}, index.get(1L));
+    assertArrayEquals(new MethodMetaData[] {positive}, index.get(Long.MAX_VALUE));
+  }
+
+  /**
+   * Checks all methods whose range contains an input are found in the order they were given, if the ranges overlap.
+   */
+  @Test
+  public void testOverlappingRanges() {
+    final MethodMetaData low = MethodFixtures.get("low");
+    final MethodMetaData middle = MethodFixtures.get("middle");
+    final MethodMetaData high = MethodFixtures.get("high");
+    final RangeIndex index = new RangeIndex(new MethodMetaData[] {high, middle, low});
+
+    assertArrayEquals(new MethodMetaData[] {low}, index.get(4));
+    assertArrayEquals(new MethodMetaData[] {middle, low}, index.get(5));
+    assertArrayEquals(new MethodMetaData[] {middle, low}, index.get(9));
+    assertArrayEquals(new MethodMetaData[] {high, middle}, index.get(10));
+    assertArrayEquals(new MethodMetaData[] {high, middle}, index.get(14));
+    assertArrayEquals(new MethodMetaData[] {high}, index.get(15));
+  }
+
+  /**
+   * Checks all integral number types are looked up by their value, while other inputs only get the methods without range.
+   */
+  @Test
+  public void testInputTypes() {
+    final MethodMetaData low = MethodFixtures.get("low");
+    final MethodMetaData any = MethodFixtures.get("any");
+    final RangeIndex index = new RangeIndex(new MethodMetaData[] {low, any});
+
+    assertArrayEquals(new MethodMetaData[] {low, any}, index.get(5L));
+    assertArrayEquals(new MethodMetaData[] {low, any}, index.get((short) 5));
+    assertArrayEquals(new MethodMetaData[] {low, any}, index.get((byte) 5));
+    assertArrayEquals(new MethodMetaData[] {any}, index.get(5.0));
+    assertArrayEquals(new MethodMetaData[] {any}, index.get("5"));
+    assertArrayEquals(new MethodMetaData[] {any}, index.get(null));
+  }
+
+  /**
+   * Checks an index without ranges returns all methods for every input.
+   */
+  @Test
+  public void testWithoutRanges() {
+    final MethodMetaData[] all = {MethodFixtures.get("any")};
+    final RangeIndex index = new RangeIndex(all);
+
+    assertSame(all, index.get(5));
+    assertSame(all, index.get("5"));
+  }
+}
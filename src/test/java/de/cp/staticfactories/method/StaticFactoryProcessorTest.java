@@ -424,6 +424,126 @@ public class StaticFactoryProcessorTest {
     assertEquals(annotatedMethod, message.element);
   }
   
+  /**
+   * Checks a warning is written in case two methods returning the same type declare the same key.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testDuplicateKeyOfSameReturnType() {
+    final Pair<ExecutableElement, AnnotationValue> keys = setupAnnoMirrorArray("keys", "a", "b");
+    final Map values = new HashMap<>(singleAnnotationMirror.getElementValues());
+    values.put(keys.getLeft(), keys.getRight());
+    Mockito.when(singleAnnotationMirror.getElementValues()).thenReturn(values);
+    Mockito.when(typeUtils.erasure(methodReturnTypeMirror)).thenReturn(methodReturnTypeMirror);
+
+    assertTrue(testee.process(newHashSet(), roundEnvironment));
+    assertTrue(messager.messages.isEmpty());
+
+    // another method declaring the same keys
+    final Name otherName = Mockito.mock(Name.class);
+    Mockito.when(otherName.toString()).thenReturn("Other method");
+    Mockito.when(annotatedMethod.getSimpleName()).thenReturn(otherName);
+
+    assertTrue(testee.process(newHashSet(), roundEnvironment));
+
+    assertEquals(2, messager.messages.size());
+    for (final TestMessager.MessageElements message : messager.messages) {
+      assertThat(message.kind, is(Diagnostic.Kind.MANDATORY_WARNING));
+      assertTrue(StringUtils.contains(message.message, "Other method"));
+      assertEquals(annotatedMethod, message.element);
+    }
+  }
+
+  /**
+   * Checks an error is written in case the minimum of a range is greater than its maximum.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRangeMinimumGreaterThanMaximum() {
+    final Pair<ExecutableElement, AnnotationValue> range = setupAnnoMirrorArray("range", 5L, 1L);
+    final Map values = new HashMap<>(singleAnnotationMirror.getElementValues());
+    values.put(range.getLeft(), range.getRight());
+    Mockito.when(singleAnnotationMirror.getElementValues()).thenReturn(values);
+
+    assertFalse(testee.process(newHashSet(), roundEnvironment));
+
+    assertEquals(1, messager.messages.size());
+    final TestMessager.MessageElements message = messager.messages.iterator().next();
+    assertThat(message.kind, is(Diagnostic.Kind.ERROR));
+    assertTrue(StringUtils.contains(message.message, "minimum greater than its maximum"));
+    assertEquals(annotatedMethod, message.element);
+  }
+
+  /**
+   * Checks an error is written in case the pattern is not a valid regular expression.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testInvalidPattern() {
+    final ExecutableElement patternElement = Mockito.mock(ExecutableElement.class);
+    final Name patternElemName = Mockito.mock(Name.class);
+    Mockito.when(patternElemName.toString()).thenReturn("pattern");
+    Mockito.when(patternElement.getSimpleName()).thenReturn(patternElemName);
+    final AnnotationValue patternValue = Mockito.mock(AnnotationValue.class);
+    Mockito.when(patternValue.getValue()).thenReturn("file:(.*");
+
+    final Map values = new HashMap<>(singleAnnotationMirror.getElementValues());
+    values.put(patternElement, patternValue);
+    Mockito.when(singleAnnotationMirror.getElementValues()).thenReturn(values);
+
+    assertFalse(testee.process(newHashSet(), roundEnvironment));
+
+    assertEquals(1, messager.messages.size());
+    final TestMessager.MessageElements message = messager.messages.iterator().next();
+    assertThat(message.kind, is(Diagnostic.Kind.ERROR));
+    assertTrue(StringUtils.contains(message.message, "not a valid regular expression"));
+    assertEquals(annotatedMethod, message.element);
+  }
+
+  /**
+   * Checks an error is written in case the expression does not follow the grammar.
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testInvalidExpression() {
+    final ExecutableElement expressionElement = Mockito.mock(ExecutableElement.class);
+    final Name expressionElemName = Mockito.mock(Name.class);
+    Mockito.when(expressionElemName.toString()).thenReturn("expression");
+    Mockito.when(expressionElement.getSimpleName()).thenReturn(expressionElemName);
+    final AnnotationValue expressionValue = Mockito.mock(AnnotationValue.class);
+    Mockito.when(expressionValue.getValue()).thenReturn("it == 1 &&");
+
+    final Map values = new HashMap<>(singleAnnotationMirror.getElementValues());
+    values.put(expressionElement, expressionValue);
+    Mockito.when(singleAnnotationMirror.getElementValues()).thenReturn(values);
+
+    assertFalse(testee.process(newHashSet(), roundEnvironment));
+
+    assertEquals(1, messager.messages.size());
+    final TestMessager.MessageElements message = messager.messages.iterator().next();
+    assertThat(message.kind, is(Diagnostic.Kind.ERROR));
+    assertTrue(StringUtils.contains(message.message, "position 10"));
+    assertEquals(annotatedMethod, message.element);
+  }
+
+  private Pair<ExecutableElement, AnnotationValue> setupAnnoMirrorArray(final String name, final Object... elements) {
+    final ExecutableElement arrayElement = Mockito.mock(ExecutableElement.class);
+    final Name arrayElemName = Mockito.mock(Name.class);
+    Mockito.when(arrayElemName.toString()).thenReturn(name);
+    Mockito.when(arrayElement.getSimpleName()).thenReturn(arrayElemName);
+
+    final List<AnnotationValue> elementValues = new ArrayList<>();
+    for (final Object element : elements) {
+      final AnnotationValue elementValue = Mockito.mock(AnnotationValue.class);
+      Mockito.when(elementValue.getValue()).thenReturn(element);
+      elementValues.add(elementValue);
+    }
+    final AnnotationValue annoValue = Mockito.mock(AnnotationValue.class);
+    Mockito.when(annoValue.getValue()).thenReturn(elementValues);
+
+    return Pair.of(arrayElement, annoValue);
+  }
+
   private <X> Set<X> newHashSet(X... elements) {
     Set<X> ret = new HashSet<>(elements.length);
     Collections.addAll(ret, elements);
@@ -0,0 +1,405 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests resolving factory methods by {@link StaticFactoryUtil}. The methods are taken from {@link Factories} and {@link Fallbacks}, listed by the services file of the test resources.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class StaticFactoryUtilTest {
+
+  @Before
+  public void setUp() {
+    System.setProperty(StaticFactoryUtil.RESOLUTION_CACHE_SIZE_PROPERTY, "16");
+    StaticFactoryUtil.reload();
+  }
+
+  @After
+  public void tearDown() {
+    System.clearProperty(StaticFactoryUtil.RESOLUTION_CACHE_SIZE_PROPERTY);
+    StaticFactoryUtil.reload();
+  }
+
+  /**
+   * Checks the resolution cache does not return the method resolved for one input to another input of the same class having a key. The method without key is type stable, so it would be cached
+   * by the class of the input if only the candidates of the first input were checked. The expected methods are resolved by new registries, as the order of the methods is not defined.
+   */
+  @Test
+  public void testResolutionCacheKeepsKeysApart() {
+    final String json = resolveAfter(null, "json");
+    final String xml = resolveAfter(null, "xml");
+    assertEquals("any", resolveAfter(null, "csv"));
+
+    assertEquals(json, resolveAfter("csv", "json"));
+    assertEquals("any", resolveAfter("json", "csv"));
+    assertEquals(xml, resolveAfter("json", "xml"));
+    assertEquals(json, resolveAfter("xml", "json"));
+  }
+
+  /**
+   * Checks a method with keys is not used, if its predicate cannot be created.
+   */
+  @Test
+  public void testMethodWithoutCreatablePredicateIsIgnored() {
+    assertEquals("any", StaticFactoryUtil.getObject(Codec.class, "yaml").name);
+  }
+
+  /**
+   * Checks a {@code null} predicate input is matched by expressions comparing it to {@code null}, both when resolved for every call and by a handle.
+   */
+  @Test
+  public void testNullInput() {
+    assertEquals("none", StaticFactoryUtil.getObject(Codec.class, null).name);
+    assertEquals("none", StaticFactoryUtil.getObject(Codec.class, null).name);
+    assertEquals("none", StaticFactoryUtil.handle(Codec.class, String.class).create(null).name);
+    assertNull(StaticFactoryUtil.getObject(Sized.class, null));
+  }
+
+  /**
+   * Checks a {@code null} argument array is given to the factory method as a single {@code null} argument.
+   */
+  @Test
+  public void testNullFactoryInputArray() {
+    assertEquals("null", StaticFactoryUtil.getObject(Labeled.class, "label", (Object[]) null).name);
+    assertEquals("null", StaticFactoryUtil.handle(Labeled.class, String.class).create("label", (Object[]) null).name);
+    try (FactoryLease<Labeled> lease = StaticFactoryUtil.borrow(Labeled.class, "label", (Object[]) null)) {
+      assertEquals("null", lease.get().name);
+    }
+  }
+
+  /**
+   * Checks only the methods whose parameters fit the number and types of the arguments are invoked, for arguments given one by one and as array.
+   */
+  @Test
+  public void testArgumentsAreCheckedAgainstParameters() {
+    assertEquals("ab", StaticFactoryUtil.getObject(Joined.class, "join", "a", "b").name);
+    assertEquals("aaa", StaticFactoryUtil.getObject(Joined.class, "join", "a", 3).name);
+    assertEquals("aaa", StaticFactoryUtil.getObject(Joined.class, "join", "a", (short) 3).name);
+    assertEquals("anull", StaticFactoryUtil.getObject(Joined.class, "join", "a", null).name);
+    assertEquals("abcde", StaticFactoryUtil.getObject(Joined.class, "join", "a", "b", "c", "d", "e").name);
+
+    // a long cannot be narrowed to the int parameter, nor can null be unboxed
+    assertNull(StaticFactoryUtil.getObject(Joined.class, "join", "a", 3L));
+    assertNull(StaticFactoryUtil.getObject(Joined.class, "join", "a", "b", "c", null));
+    assertNull(StaticFactoryUtil.getObject(Joined.class, "join", "a"));
+    assertNull(StaticFactoryUtil.getObject(Joined.class, "join", "a", "b", "c"));
+    assertNull(StaticFactoryUtil.getObject(Joined.class, "join", "a", "b", "c", "d", 5));
+  }
+
+  /**
+   * Checks the overloads taking single arguments call the same methods as the one taking an array, and a single array argument is spread to the method's arguments.
+   */
+  @Test
+  public void testFixedArityOverloads() {
+    assertEquals("json", StaticFactoryUtil.getObject(Codec.class, "json").name);
+    assertEquals("x", StaticFactoryUtil.getObject(Labeled.class, "label", "x").name);
+    assertEquals("ab", StaticFactoryUtil.getObject(Joined.class, "join", "a", "b").name);
+    assertEquals("abc", StaticFactoryUtil.getObject(Joined.class, "join", "a", "b", "c", 1).name);
+    assertEquals("abcc", StaticFactoryUtil.getObject(Joined.class, "join", "a", "b", "c", 2).name);
+
+    assertEquals("x", StaticFactoryUtil.getObject(Labeled.class, "label", new Object[] {"x"}).name);
+    assertEquals("ab", StaticFactoryUtil.getObject(Joined.class, "join", new Object[] {"a", "b"}).name);
+    assertEquals("abcde", StaticFactoryUtil.getObject(Joined.class, "join", new Object[] {"a", "b", "c", "d", "e"}).name);
+    assertEquals("json", StaticFactoryUtil.getObject(Codec.class, "json", new Object[0]).name);
+  }
+
+  /**
+   * Checks the resolution cache does not return the method resolved for one range to another input of the same class.
+   */
+  @Test
+  public void testResolutionCacheKeepsRangesApart() {
+    assertEquals("small", StaticFactoryUtil.getObject(Sized.class, 5).name);
+    assertEquals("large", StaticFactoryUtil.getObject(Sized.class, 5000).name);
+
+    StaticFactoryUtil.reload();
+    assertEquals("large", StaticFactoryUtil.getObject(Sized.class, 5000).name);
+    assertEquals("small", StaticFactoryUtil.getObject(Sized.class, 5).name);
+  }
+
+  /**
+   * Checks results of cacheable methods are returned from the cache for equal requests, counting hits and misses.
+   */
+  @Test
+  public void testResultCache() {
+    final Cached first = StaticFactoryUtil.getObject(Cached.class, "lasting");
+
+    assertSame(first, StaticFactoryUtil.getObject(Cached.class, "lasting"));
+    final FactoryCacheStatistics statistics = StaticFactoryUtil.getResultCacheStatistics();
+    assertEquals(1L, statistics.getHits());
+    assertEquals(1L, statistics.getMisses());
+    assertEquals(1, statistics.getSize());
+  }
+
+  /**
+   * Checks cached results are dropped once they expired.
+   */
+  @Test
+  public void testResultCacheExpiry() throws InterruptedException {
+    final Cached first = StaticFactoryUtil.getObject(Cached.class, "expiring");
+    assertSame(first, StaticFactoryUtil.getObject(Cached.class, "expiring"));
+
+    Thread.sleep(100L);
+
+    assertNotSame(first, StaticFactoryUtil.getObject(Cached.class, "expiring"));
+    assertEquals(1L, StaticFactoryUtil.getResultCacheStatistics().getHits());
+    assertEquals(2L, StaticFactoryUtil.getResultCacheStatistics().getMisses());
+  }
+
+  /**
+   * Checks results of methods that are not cacheable are created for every request, even if other methods of the same type are cacheable.
+   */
+  @Test
+  public void testNotCacheable() {
+    final Cached first = StaticFactoryUtil.getObject(Cached.class, "uncached");
+
+    assertNotSame(first, StaticFactoryUtil.getObject(Cached.class, "uncached"));
+    assertEquals(0L, StaticFactoryUtil.getResultCacheStatistics().getHits());
+    assertEquals(0, StaticFactoryUtil.getResultCacheStatistics().getSize());
+  }
+
+  /**
+   * Checks a request no method was found for is remembered, so it is answered without evaluating predicates, until the methods are reloaded.
+   */
+  @Test
+  public void testNegativeCache() {
+    Odd.CALLS.set(0);
+
+    assertNull(StaticFactoryUtil.getObject(Numbered.class, 2));
+    assertNull(StaticFactoryUtil.getObject(Numbered.class, 2));
+    final FactoryResolutionStatistics statistics = StaticFactoryUtil.getResolutionStatistics();
+    assertEquals(2L, statistics.getUnmatched());
+    assertEquals(1L, statistics.getNegativeCacheHits());
+    assertEquals(1, statistics.getNegativeCacheSize());
+    assertEquals(1, Odd.CALLS.get());
+    assertEquals("odd", StaticFactoryUtil.getObject(Numbered.class, 3).name);
+
+    StaticFactoryUtil.reload();
+
+    assertEquals(0L, StaticFactoryUtil.getResolutionStatistics().getNegativeCacheHits());
+    assertNull(StaticFactoryUtil.getObject(Numbered.class, 2));
+    assertEquals(3, Odd.CALLS.get());
+    assertEquals(1, StaticFactoryUtil.getResolutionStatistics().getNegativeCacheSize());
+  }
+
+  /**
+   * Resolves a codec for the given input by a newly loaded registry, after resolving one for another input.
+   *
+   * @param before the input to resolve a codec for first, {@code null} to resolve none
+   * @param input the input to resolve the returned codec for
+   * @return the name of the codec resolved for {@code input}
+   */
+  private static String resolveAfter(final String before, final String input) {
+    StaticFactoryUtil.reload();
+    if (before != null) {
+      StaticFactoryUtil.getObject(Codec.class, before);
+    }
+    return StaticFactoryUtil.getObject(Codec.class, input).name;
+  }
+
+  public static class Product {
+
+    final String name;
+
+    Product(final String name) {
+      this.name = name;
+    }
+  }
+
+  public static final class Codec extends Product {
+
+    Codec(final String name) {
+      super(name);
+    }
+  }
+
+  public static final class Sized extends Product {
+
+    Sized(final String name) {
+      super(name);
+    }
+  }
+
+  public static final class Cached extends Product {
+
+    Cached(final String name) {
+      super(name);
+    }
+  }
+
+  public static final class Numbered extends Product {
+
+    Numbered(final String name) {
+      super(name);
+    }
+  }
+
+  public static final class Labeled extends Product {
+
+    Labeled(final String name) {
+      super(name);
+    }
+  }
+
+  public static final class Joined extends Product {
+
+    Joined(final String name) {
+      super(name);
+    }
+  }
+
+  public static final class Odd implements Predicate<Integer> {
+
+    static final AtomicInteger CALLS = new AtomicInteger();
+
+    @Override
+    public boolean test(final Integer input) {
+      CALLS.incrementAndGet();
+      return input % 2 != 0;
+    }
+  }
+
+  public static final class AnyString implements Predicate<String> {
+
+    @Override
+    public boolean test(final String input) {
+      return true;
+    }
+  }
+
+  public static final class Inaccessible implements Predicate<String> {
+
+    private Inaccessible() {
+    }
+
+    @Override
+    public boolean test(final String input) {
+      return true;
+    }
+  }
+
+  public static final class Factories {
+
+    private Factories() {
+    }
+
+    @StaticFactoryMethod(keys = "json")
+    public static Codec json() {
+      return new Codec("json");
+    }
+
+    @StaticFactoryMethod(keys = "xml")
+    public static Codec xml() {
+      return new Codec("xml");
+    }
+
+    @StaticFactoryMethod(keys = "yaml", predicate = Inaccessible.class)
+    public static Codec yaml() {
+      return new Codec("yaml");
+    }
+
+    @StaticFactoryMethod(expression = "it == null")
+    public static Codec none() {
+      return new Codec("none");
+    }
+
+    @StaticFactoryMethod(range = {0, 1023})
+    public static Sized small() {
+      return new Sized("small");
+    }
+
+    @StaticFactoryMethod(range = {1024, Long.MAX_VALUE})
+    public static Sized large() {
+      return new Sized("large");
+    }
+
+    @StaticFactoryMethod(keys = "lasting", stability = StaticFactoryMethod.Stability.VALUE, cacheable = true)
+    public static Cached lasting() {
+      return new Cached("lasting");
+    }
+
+    @StaticFactoryMethod(keys = "expiring", stability = StaticFactoryMethod.Stability.VALUE, cacheable = true, cacheExpiryMillis = 50L)
+    public static Cached expiring() {
+      return new Cached("expiring");
+    }
+
+    @StaticFactoryMethod(keys = "uncached", stability = StaticFactoryMethod.Stability.VALUE)
+    public static Cached uncached() {
+      return new Cached("uncached");
+    }
+
+    @StaticFactoryMethod(predicate = Odd.class, stability = StaticFactoryMethod.Stability.VALUE)
+    public static Numbered odd() {
+      return new Numbered("odd");
+    }
+
+    @StaticFactoryMethod(keys = "label")
+    public static Labeled label(final String text) {
+      return new Labeled(String.valueOf(text));
+    }
+
+    @StaticFactoryMethod(keys = "join")
+    public static Joined join(final String first, final String second) {
+      return new Joined(first + second);
+    }
+
+    @StaticFactoryMethod(keys = "join")
+    public static Joined repeat(final String text, final int times) {
+      final StringBuilder repeated = new StringBuilder();
+      for (int i = 0; i < times; i++) {
+        repeated.append(text);
+      }
+      return new Joined(repeated.toString());
+    }
+
+    @StaticFactoryMethod(keys = "join")
+    public static Joined join(final String first, final String second, final String third, final int times) {
+      return new Joined(first + second + repeat(third, times).name);
+    }
+
+    @StaticFactoryMethod(keys = "join")
+    public static Joined join(final String first, final String second, final String third, final String fourth, final String fifth) {
+      return new Joined(first + second + third + fourth + fifth);
+    }
+  }
+
+  public static final class Fallbacks {
+
+    private Fallbacks() {
+    }
+
+    @StaticFactoryMethod(predicate = AnyString.class, stability = StaticFactoryMethod.Stability.TYPE)
+    public static Codec any() {
+      return new Codec("any");
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests matching methods by the prefixes and patterns of their inputs by {@link StringMatcher}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class StringMatcherTest {
+
+  /**
+   * Checks methods are kept if one of their prefixes starts the input, also if a prefix is a prefix of another one.
+   */
+  @Test
+  public void testPrefixes() {
+    final MethodMetaData http = MethodFixtures.get("http");
+    final MethodMetaData https = MethodFixtures.get("https");
+    final MethodMetaData any = MethodFixtures.get("any");
+    final MethodMetaData[] all = {http, https, any};
+    final StringMatcher matcher = new StringMatcher(all);
+
+    assertSame(all, matcher.filter(all, "https://host"));
+    assertSame(all, matcher.filter(all, new StringBuilder("https://")));
+    assertArrayEquals(new MethodMetaData[] {http, any}, matcher.filter(all, "http://host"));
+    assertArrayEquals(new MethodMetaData[] {any}, matcher.filter(all, "http:/"));
+    assertArrayEquals(new MethodMetaData[] {any}, matcher.filter(all, ""));
+    assertArrayEquals(new MethodMetaData[] {any}, matcher.filter(all, 5));
+  }
+
+  /**
+   * Checks the merged patterns tell which of them match the whole input, combined with prefixes and patterns using back references.
+   */
+  @Test
+  public void testMergedPatterns() {
+    final MethodMetaData xml = MethodFixtures.get("xml");
+    final MethodMetaData httpsXml = MethodFixtures.get("httpsXml");
+    final MethodMetaData doubled = MethodFixtures.get("doubled");
+    final MethodMetaData any = MethodFixtures.get("any");
+    final MethodMetaData[] all = {xml, httpsXml, doubled, any};
+    final StringMatcher matcher = new StringMatcher(all);
+
+    assertArrayEquals(new MethodMetaData[] {xml, any}, matcher.filter(all, "a.xml"));
+    assertArrayEquals(new MethodMetaData[] {xml, httpsXml, any}, matcher.filter(all, "https://a.xml"));
+    assertArrayEquals(new MethodMetaData[] {xml, doubled, any}, matcher.filter(all, "aa.xml"));
+    assertArrayEquals(new MethodMetaData[] {doubled, any}, matcher.filter(all, "bb"));
+    assertArrayEquals(new MethodMetaData[] {any}, matcher.filter(all, "a.xmlx"));
+  }
+
+  /**
+   * Checks a pattern whose quote is not ended is matched on its own, while the other patterns are still matched correctly.
+   */
+  @Test
+  public void testUnterminatedQuote() {
+    final MethodMetaData quoted = MethodFixtures.get("quoted");
+    final MethodMetaData xml = MethodFixtures.get("xml");
+    final MethodMetaData any = MethodFixtures.get("any");
+    final MethodMetaData[] all = {quoted, xml, any};
+    final StringMatcher matcher = new StringMatcher(all);
+
+    assertArrayEquals(new MethodMetaData[] {quoted, any}, matcher.filter(all, "a.b"));
+    assertArrayEquals(new MethodMetaData[] {any}, matcher.filter(all, "axb"));
+    assertArrayEquals(new MethodMetaData[] {xml, any}, matcher.filter(all, "c.xml"));
+  }
+
+  /**
+   * Checks patterns declaring the same named group, which cannot be merged, are all matched on their own.
+   */
+  @Test
+  public void testDuplicateGroupNames() {
+    final MethodMetaData namedA = MethodFixtures.get("namedA");
+    final MethodMetaData namedB = MethodFixtures.get("namedB");
+    final MethodMetaData xml = MethodFixtures.get("xml");
+    final MethodMetaData[] all = {namedA, namedB, xml};
+    final StringMatcher matcher = new StringMatcher(all);
+
+    assertArrayEquals(new MethodMetaData[] {namedA, xml}, matcher.filter(all, "ab.xml"));
+    assertArrayEquals(new MethodMetaData[] {namedB}, matcher.filter(all, "b"));
+  }
+
+  /**
+   * Checks threads filtering at the same time each get the methods matching their own input, as the matches are kept per thread.
+   */
+  @Test
+  public void testConcurrentFiltering() throws Exception {
+    final MethodMetaData xml = MethodFixtures.get("xml");
+    final MethodMetaData httpsXml = MethodFixtures.get("httpsXml");
+    final MethodMetaData doubled = MethodFixtures.get("doubled");
+    final MethodMetaData any = MethodFixtures.get("any");
+    final MethodMetaData[] all = {xml, httpsXml, doubled, any};
+    final StringMatcher matcher = new StringMatcher(all);
+    final String[] inputs = {"https://a.xml", "bb", "aa.xml", "a.xmlx"};
+    final MethodMetaData[][] expected = {{xml, httpsXml, any}, {doubled, any}, {xml, doubled, any}, {any}};
+
+    final ExecutorService executor = Executors.newFixedThreadPool(inputs.length);
+    try {
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < inputs.length; i++) {
+        final int index = i;
+        futures.add(executor.submit((Callable<Void>) () -> {
+          for (int j = 0; j < 10000; j++) {
+            assertArrayEquals(expected[index], matcher.filter(all, inputs[index]));
+          }
+          return null;
+        }));
+      }
+      for (final Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+  }
+}
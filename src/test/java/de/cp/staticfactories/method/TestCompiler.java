@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.cp.staticfactories.method;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles sources declaring static factory methods by the {@link StaticFactoryProcessor}, like a jar built with the processor.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+final class TestCompiler {
+
+  private TestCompiler() {
+  }
+
+  /**
+   * Compiles the given sources into the given directory, together with the invokers, the services file and the index generated for them.
+   *
+   * @param directory the directory to write the sources and classes to
+   * @param sources the sources by the binary names of their classes
+   * @return the directory of the compiled classes
+   * @throws IOException in case the sources cannot be written
+   * @throws AssertionError in case the sources cannot be compiled
+   */
+  static File compile(final File directory, final Map<String, String> sources) throws IOException {
+    final File sourceDirectory = new File(directory, "src");
+    final File classesDirectory = new File(directory, "classes");
+    final File generatedDirectory = new File(directory, "generated");
+    Files.createDirectories(classesDirectory.toPath());
+    Files.createDirectories(generatedDirectory.toPath());
+
+    final List<File> files = new ArrayList<>();
+    for (final Map.Entry<String, String> source : sources.entrySet()) {
+      final File file = new File(sourceDirectory, source.getKey().replace('.', File.separatorChar) + ".java");
+      Files.createDirectories(file.getParentFile().toPath());
+      Files.write(file.toPath(), source.getValue().getBytes(StandardCharsets.UTF_8));
+      files.add(file);
+    }
+
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (final StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      final JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+          Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", classesDirectory.getPath(), "-s", generatedDirectory.getPath()), null,
+          fileManager.getJavaFileObjectsFromFiles(files));
+      task.setProcessors(Collections.singletonList(new StaticFactoryProcessor()));
+      if (!task.call()) {
+        throw new AssertionError("Compilation failed: " + diagnostics.getDiagnostics());
+      }
+    }
+    return classesDirectory;
+  }
+
+  /**
+   * Creates a loader of the given directories of compiled classes, which delegates to the loader of the tests first.
+   *
+   * @param classesDirectories the directories to load from
+   * @return the loader
+   * @throws IOException in case a directory cannot be converted to an URL
+   */
+  static URLClassLoader newLoader(final File... classesDirectories) throws IOException {
+    final URL[] urls = new URL[classesDirectories.length];
+    for (int i = 0; i < urls.length; i++) {
+      urls[i] = classesDirectories[i].toURI().toURL();
+    }
+    return new URLClassLoader(urls, TestCompiler.class.getClassLoader());
+  }
+}
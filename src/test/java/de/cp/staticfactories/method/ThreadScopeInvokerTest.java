@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package de.cp.staticfactories.method;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link ThreadScopeInvoker}.
+ *
+ * @author cperv
+ * @version 0.2
+ */
+public class ThreadScopeInvokerTest {
+
+  /**
+   * Checks each thread gets its own object, and clearing drops the objects of threads that are still alive.
+   */
+  @Test
+  public void testClearDropsObjectsOfLiveThreads() throws Exception {
+    final AtomicInteger created = new AtomicInteger();
+    final ThreadScopeInvoker invoker = new ThreadScopeInvoker((Object... arguments) -> new Object[] {created.incrementAndGet()});
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Object pooled = executor.submit(() -> create(invoker)).get();
+      assertSame(pooled, executor.submit(() -> create(invoker)).get());
+      final Object own = create(invoker);
+      assertNotSame(pooled, own);
+      assertEquals(2, created.get());
+
+      invoker.clear();
+
+      assertNull(executor.submit(invoker::current).get());
+      assertNull(invoker.current());
+      assertNotSame(pooled, executor.submit(() -> create(invoker)).get());
+      assertEquals(3, created.get());
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+  }
+
+  private static Object create(final ThreadScopeInvoker invoker) {
+    try {
+      return invoker.invoke0();
+    } catch (final Throwable ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}